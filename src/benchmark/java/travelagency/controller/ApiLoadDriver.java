@@ -0,0 +1,375 @@
+package travelagency.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import travelagency.TravelAgencyApplication;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model HTTP load driver for the REST API. Boots the application on a random port against an
+ * in-memory H2 database, then sends a weighted mix of
+ *
+ *   trips                  GET  /api/trips
+ *   trip-reservations      GET  /api/trips/{id}/reservations
+ *   customer-reservations  GET  /api/customers/{id}/reservations
+ *   book                   POST /api/reservations
+ *
+ * at a fixed arrival rate. Requests are started on schedule whether or not earlier ones have
+ * answered, and latency is measured from the scheduled start, so a stalled server shows up as queueing
+ * delay instead of a quietly lower request rate (no coordinated omission). Latencies go into one
+ * HdrHistogram per operation; the JSON report carries percentiles, throughput, outcome counts and the
+ * encoded histograms so runs can be compared or merged later.
+ *
+ *   mvn -Pbenchmarks test-compile exec:exec@load-test \
+ *       -Dload.args="--load.rate=500 --load.duration=PT60S --seed.trips=2000 --seed.customers=20000 --seed.reservations=100000"
+ *
+ * --load.* options configure the driver; everything else goes to the application, so the seed.*
+ * properties size the dataset. Options: rate (requests/s, 200), duration (PT30S), warmup (PT10S),
+ * arrival (constant or poisson), mix (name=weight list), max-in-flight (2000; requests beyond it are
+ * counted as dropped, not delayed), random-seed (7) and report (target/load-report.json).
+ */
+public final class ApiLoadDriver {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Map<String, String> options;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final String baseUrl;
+    private final long[] tripIds;
+    private final long[] customerIds;
+    private final List<Operation> operations;
+    private final int totalWeight;
+
+    private ApiLoadDriver(Map<String, String> options, String baseUrl, long[] tripIds, long[] customerIds) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.tripIds = tripIds;
+        this.customerIds = customerIds;
+        this.operations = parseMix(option("mix", "trips=5,trip-reservations=35,customer-reservations=40,book=20"));
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"));
+        for (String arg : args) {
+            if (arg.startsWith("--load.") && arg.contains("=")) {
+                options.put(arg.substring(7, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+
+        // Devtools is on the exec classpath; its restart classloader would run the app a second time
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = SpringApplication.run(TravelAgencyApplication.class,
+                applicationArgs.toArray(String[]::new));
+        int exitCode = 0;
+        try {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            long[] tripIds = jdbcTemplate.queryForList("select trip_id from trips order by trip_id", Long.class)
+                    .stream().mapToLong(Long::longValue).toArray();
+            long[] customerIds = jdbcTemplate.queryForList("select user_id from customers order by user_id", Long.class)
+                    .stream().mapToLong(Long::longValue).toArray();
+            if (tripIds.length == 0 || customerIds.length == 0) {
+                throw new IllegalStateException("Load test needs at least one trip and one customer");
+            }
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            new ApiLoadDriver(options, baseUrl, tripIds, customerIds).run();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            exitCode = 1;
+        } finally {
+            context.close();
+        }
+        System.exit(exitCode);
+    }
+
+    private void run() throws IOException {
+        double rate = Double.parseDouble(option("rate", "200"));
+        Duration warmup = Duration.parse(option("warmup", "PT10S"));
+        Duration duration = Duration.parse(option("duration", "PT30S"));
+        boolean poisson = option("arrival", "constant").equals("poisson");
+        int maxInFlight = Integer.parseInt(option("max-in-flight", "2000"));
+        SplittableRandom random = new SplittableRandom(Long.parseLong(option("random-seed", "7")));
+
+        System.out.printf("Load test against %s: %d trips, %d customers, %.0f req/s (%s arrivals), mix %s%n",
+                baseUrl, tripIds.length, customerIds.length, rate, poisson ? "poisson" : "constant",
+                option("mix", "default"));
+        if (!warmup.isZero()) {
+            System.out.println("Warming up for " + warmup.toSeconds() + " s");
+            drive(new Phase(), rate, warmup, poisson, maxInFlight, random);
+        }
+        System.out.println("Measuring for " + duration.toSeconds() + " s");
+        Phase measured = new Phase();
+        Instant startedAt = Instant.now();
+        long elapsedNanos = drive(measured, rate, duration, poisson, maxInFlight, random);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("targetRate", rate);
+        report.put("arrival", poisson ? "poisson" : "constant");
+        report.put("warmupSeconds", warmup.toSeconds());
+        report.put("durationSeconds", elapsedNanos / 1e9);
+        report.put("maxInFlight", maxInFlight);
+        report.put("dataset", Map.of("trips", tripIds.length, "customers", customerIds.length));
+        Map<String, Object> mix = new LinkedHashMap<>();
+        operations.forEach(op -> mix.put(op.name(), op.weight()));
+        report.put("mix", mix);
+        Map<String, Object> results = new LinkedHashMap<>();
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        Counts totalCounts = new Counts();
+        for (Operation op : operations) {
+            Histogram histogram = measured.recorder(op).getIntervalHistogram();
+            Counts counts = measured.counts(op);
+            total.add(histogram);
+            totalCounts.addAll(counts);
+            results.put(op.name(), summary(histogram, counts, elapsedNanos));
+        }
+        report.put("operations", results);
+        report.put("total", summary(total, totalCounts, elapsedNanos));
+
+        Path path = Path.of(option("report", "target/load-report.json"));
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+
+        System.out.printf("%-22s %9s %9s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "req/s", "ok", "rejected", "failed", "dropped", "p50 ms", "p99 ms", "p999 ms");
+        results.forEach((name, summary) -> print(name, summary));
+        print("total", report.get("total"));
+        System.out.println("Report written to " + path.toAbsolutePath());
+    }
+
+    /**
+     * Sends requests on schedule for the given duration, then waits for the stragglers. Returns the
+     * length of the sending window in nanoseconds.
+     */
+    private long drive(Phase phase, double rate, Duration duration, boolean poisson, int maxInFlight,
+                       SplittableRandom random) {
+        double intervalNanos = 1e9 / rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        double next = start;
+        while (next < end) {
+            long intendedStart = (long) next;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait);
+            // Behind schedule the loop keeps issuing without sleeping; the lag is charged to latency
+            Operation op = pick(random);
+            if (inFlight.get() >= maxInFlight) {
+                phase.counts(op).dropped.increment();
+            } else {
+                send(phase, op, request(op, random), intendedStart);
+            }
+            next += poisson ? -Math.log(1 - random.nextDouble()) * intervalNanos : intervalNanos;
+        }
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return end - start;
+    }
+
+    private void send(Phase phase, Operation op, HttpRequest request, long intendedStart) {
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, error) -> {
+            long micros = (System.nanoTime() - intendedStart) / 1000;
+            phase.recorder(op).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+            Counts counts = phase.counts(op);
+            if (error != null || response.statusCode() >= 400) {
+                counts.failed.increment();
+                counts.failure(error != null ? rootCause(error).getClass().getSimpleName()
+                        : "HTTP " + response.statusCode());
+            } else if (isRejection(response.body())) {
+                counts.rejected.increment();
+            } else {
+                counts.ok.increment();
+            }
+            inFlight.decrementAndGet();
+        });
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        while (error.getCause() != null) error = error.getCause();
+        return error;
+    }
+
+    // Booking refusals (full trip, departed trip) come back as 200 with an "error" field
+    private static boolean isRejection(byte[] body) {
+        return body.length > 0 && body[0] == '{' && new String(body, 0, Math.min(body.length, 64)).contains("\"error\"");
+    }
+
+    private HttpRequest request(Operation op, SplittableRandom random) {
+        return switch (op.name()) {
+            case "trips" -> get("/api/trips");
+            case "trip-reservations" -> get("/api/trips/" + popular(tripIds, random) + "/reservations");
+            case "customer-reservations" -> get("/api/customers/" + uniform(customerIds, random) + "/reservations");
+            case "book" -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/reservations"))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"customerId\":" + uniform(customerIds, random)
+                            + ",\"tripId\":" + uniform(tripIds, random)
+                            + ",\"numberOfPeople\":" + random.nextInt(1, 3) + "}"))
+                    .build();
+            default -> throw new IllegalArgumentException("Unknown operation " + op.name());
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60)).GET().build();
+    }
+
+    // Reads are skewed like the synthetic data, a small share of trips drawing most of the traffic;
+    // bookings spread uniformly, since the popular trips are mostly sold out
+    private static long popular(long[] ids, SplittableRandom random) {
+        double r = random.nextDouble();
+        return ids[(int) (ids.length * r * r)];
+    }
+
+    private static long uniform(long[] ids, SplittableRandom random) {
+        return ids[random.nextInt(ids.length)];
+    }
+
+    private Operation pick(SplittableRandom random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Operation op : operations) {
+            ticket -= op.weight();
+            if (ticket < 0) return op;
+        }
+        throw new IllegalStateException("Empty operation mix");
+    }
+
+    private static List<Operation> parseMix(String mix) {
+        List<Operation> operations = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) operations.add(new Operation(operations.size(), parts[0].trim(), weight));
+        }
+        if (operations.isEmpty()) throw new IllegalArgumentException("load.mix has no positive weights");
+        return operations;
+    }
+
+    private static Map<String, Object> summary(Histogram histogram, Counts counts, long elapsedNanos) {
+        long completed = histogram.getTotalCount();
+        double seconds = elapsedNanos / 1e9;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("completed", completed);
+        summary.put("ok", counts.ok.sum());
+        summary.put("rejected", counts.rejected.sum());
+        summary.put("failed", counts.failed.sum());
+        summary.put("dropped", counts.dropped.sum());
+        Map<String, Long> failures = new TreeMap<>();
+        counts.failures.forEach((reason, count) -> failures.put(reason, count.sum()));
+        summary.put("failures", failures);
+        summary.put("throughput", Math.round(completed / seconds * 10) / 10.0);
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", millis(histogram.getMean()));
+        latency.put("p50", millis(histogram.getValueAtPercentile(50)));
+        latency.put("p90", millis(histogram.getValueAtPercentile(90)));
+        latency.put("p99", millis(histogram.getValueAtPercentile(99)));
+        latency.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+        latency.put("max", millis(histogram.getMaxValue()));
+        summary.put("latencyMillis", latency);
+        summary.put("histogram", encode(histogram));
+        return summary;
+    }
+
+    private static double millis(double micros) {
+        return Math.round(micros) / 1000.0;
+    }
+
+    // Compressed, base64-encoded histogram (HdrHistogram's own log format) for merging across runs
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(String name, Object summary) {
+        Map<String, Object> values = (Map<String, Object>) summary;
+        Map<String, Object> latency = (Map<String, Object>) values.get("latencyMillis");
+        System.out.printf("%-22s %9s %9s %9s %9s %9s %9s %9s %9s%n", name, values.get("throughput"), values.get("ok"),
+                values.get("rejected"), values.get("failed"), values.get("dropped"),
+                latency.get("p50"), latency.get("p99"), latency.get("p999"));
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    private record Operation(int index, String name, int weight) {}
+
+    private static final class Counts {
+        final LongAdder ok = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+        final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+        void failure(String reason) {
+            failures.computeIfAbsent(reason, r -> new LongAdder()).increment();
+        }
+
+        void addAll(Counts other) {
+            ok.add(other.ok.sum());
+            rejected.add(other.rejected.sum());
+            failed.add(other.failed.sum());
+            dropped.add(other.dropped.sum());
+            other.failures.forEach((reason, count) ->
+                    failures.computeIfAbsent(reason, r -> new LongAdder()).add(count.sum()));
+        }
+    }
+
+    // Results of one warmup or measurement window, so late warmup responses never leak into the report
+    private final class Phase {
+        private final Recorder[] recorders = new Recorder[operations.size()];
+        private final Counts[] counts = new Counts[operations.size()];
+
+        Phase() {
+            for (int i = 0; i < recorders.length; i++) {
+                recorders[i] = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+                counts[i] = new Counts();
+            }
+        }
+
+        Recorder recorder(Operation op) {
+            return recorders[op.index()];
+        }
+
+        Counts counts(Operation op) {
+            return counts[op.index()];
+        }
+    }
+}
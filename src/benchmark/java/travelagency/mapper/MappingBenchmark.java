@@ -0,0 +1,83 @@
+package travelagency.mapper;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import travelagency.model.*;
+import travelagency.model.enums.DifficultyLevel;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping over a detached catalog of tripsPerCatalog trips (adventure, cultural and
+ * vacation in turn), each with reservationsPerTrip reservations spread over a handful of customers.
+ * One operation maps the whole catalog or all reservations, as a listing endpoint would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MappingBenchmark {
+
+    private static final int CUSTOMERS = 8;
+
+    @Param({"10", "1000"})
+    public int tripsPerCatalog;
+
+    @Param({"1", "20"})
+    public int reservationsPerTrip;
+
+    private List<Trip> catalog;
+    private List<Reservation> reservations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Destination destination = new Destination("Rome", "Italy", "Ancient history and culture", "Mediterranean");
+        Address address = new Address("1 Main St", "City", "00000", "USA");
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(new Customer("Customer", "No" + i, "c" + i + "@example.com", address));
+        }
+
+        catalog = new ArrayList<>(tripsPerCatalog);
+        reservations = new ArrayList<>(tripsPerCatalog * reservationsPerTrip);
+        LocalDate departure = LocalDate.now().plusMonths(3);
+        for (int i = 0; i < tripsPerCatalog; i++) {
+            BigDecimal price = BigDecimal.valueOf(1000 + i);
+            int capacity = reservationsPerTrip + 10;
+            Trip trip = switch (i % 3) {
+                case 0 -> new AdventureTrip("ADV-" + i, "Adventure " + i, "Trek", destination, departure,
+                        departure.plusDays(9), price, capacity, DifficultyLevel.MEDIUM, true);
+                case 1 -> {
+                    CulturalTrip ct = new CulturalTrip("CUL-" + i, "Culture " + i, "Museums", destination, departure,
+                            departure.plusDays(7), price, capacity, true);
+                    ct.addHistoricalSite("Colosseum");
+                    ct.addHistoricalSite("Pantheon");
+                    yield ct;
+                }
+                default -> new VacationTrip("VAC-" + i, "Vacation " + i, "Sun", destination, departure,
+                        departure.plusDays(10), price, capacity, "Resort " + i, i % 2 == 0);
+            };
+            trip.setTripId((long) i + 1);
+            catalog.add(trip);
+            for (int r = 0; r < reservationsPerTrip; r++) {
+                reservations.add(new Reservation(customers.get((i + r) % CUSTOMERS), trip, 1 + r % 3));
+            }
+        }
+    }
+
+    @Benchmark
+    public void tripToDto(Blackhole bh) {
+        for (Trip trip : catalog) bh.consume(TripMapper.toDto(trip));
+    }
+
+    @Benchmark
+    public void reservationToCustomerDto(Blackhole bh) {
+        for (Reservation reservation : reservations) bh.consume(CustomerMapper.toReservationDto(reservation));
+    }
+}
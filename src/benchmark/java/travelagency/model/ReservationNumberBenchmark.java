@@ -0,0 +1,51 @@
+package travelagency.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reservation number generation: the Snowflake generator against the former
+ * timestamp-format-plus-random-suffix scheme, single-threaded and contended.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReservationNumberBenchmark {
+
+    private static final DateTimeFormatter LEGACY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
+
+    @Benchmark
+    public String snowflake() {
+        return ReservationNumbers.next();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String snowflakeContended() {
+        return ReservationNumbers.next();
+    }
+
+    @Benchmark
+    public String legacy() {
+        return legacyNumber();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String legacyContended() {
+        return legacyNumber();
+    }
+
+    private static String legacyNumber() {
+        String timestamp = LocalDateTime.now().format(LEGACY_FORMAT);
+        int randomSuffix = ThreadLocalRandom.current().nextInt(100, 1000);
+        return "RES-" + timestamp + "-" + randomSuffix;
+    }
+}
@@ -0,0 +1,96 @@
+package travelagency.model;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import travelagency.model.enums.DifficultyLevel;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Derived attributes and association helpers of the domain model, on detached entities with
+ * reservationsPerTrip reservations attached to the trip under test.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TripDomainBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int reservationsPerTrip;
+
+    private AdventureTrip adventureTrip;
+    private CulturalTrip culturalTrip;
+    private VacationTrip vacationTrip;
+    private Reservation reservation;
+    private Customer customer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Destination destination = new Destination("Paris", "France", "The City of Light", "Temperate");
+        LocalDate departure = LocalDate.now().plusMonths(2);
+        adventureTrip = new AdventureTrip("ADV-B", "Alps Hike", "Trek", destination, departure,
+                departure.plusDays(9), new BigDecimal("2000"), reservationsPerTrip + 10, DifficultyLevel.HARD, true);
+        culturalTrip = new CulturalTrip("CUL-B", "Paris Tour", "Museums", destination, departure,
+                departure.plusDays(7), new BigDecimal("1000"), reservationsPerTrip + 10, true);
+        vacationTrip = new VacationTrip("VAC-B", "Beach", "Sun", destination, departure,
+                departure.plusDays(10), new BigDecimal("3000"), reservationsPerTrip + 10, "Resort", true);
+        customer = new Customer("Bench", "Mark", "bench@example.com", new Address("1 Main St", "City", "00000", "USA"));
+        for (int i = 0; i < reservationsPerTrip; i++) {
+            reservation = new Reservation(customer, culturalTrip, 1);
+        }
+    }
+
+    @Benchmark
+    public int availableSpots() {
+        return culturalTrip.getAvailableSpots();
+    }
+
+    @Benchmark
+    public void finalPrice(Blackhole bh) {
+        bh.consume(adventureTrip.getFinalPrice());
+        bh.consume(culturalTrip.getFinalPrice());
+        bh.consume(vacationTrip.getFinalPrice());
+    }
+
+    @Benchmark
+    public BigDecimal totalPrice() {
+        return reservation.getTotalPrice();
+    }
+
+    @Benchmark
+    public String reservationNumber() {
+        return ReservationNumbers.next();
+    }
+
+    /** Attaches one more reservation (both sides of Customer <-> Reservation <-> Trip) and detaches it again. */
+    @Benchmark
+    public Reservation addAndRemoveReservation() {
+        Reservation added = new Reservation(customer, culturalTrip, 1);
+        added.setTrip(null);
+        added.setCustomer(null);
+        return added;
+    }
+
+    /** Builds a trip's reservation list from scratch through the bidirectional helpers. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 20)
+    @Measurement(iterations = 50)
+    public List<Reservation> attachReservations() {
+        CulturalTrip trip = new CulturalTrip("CUL-N", "Paris Tour", "Museums", null,
+                culturalTrip.getDepartureDate(), culturalTrip.getReturnDate(), culturalTrip.getBasePrice(),
+                reservationsPerTrip, true);
+        Customer owner = new Customer("Bench", "Mark", "bench@example.com", customer.getAddress());
+        List<Reservation> attached = new ArrayList<>(reservationsPerTrip);
+        for (int i = 0; i < reservationsPerTrip; i++) attached.add(new Reservation(owner, trip, 1));
+        return attached;
+    }
+}
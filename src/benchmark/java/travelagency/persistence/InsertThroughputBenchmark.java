@@ -0,0 +1,79 @@
+package travelagency.persistence;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import travelagency.model.Destination;
+import travelagency.model.Flight;
+
+import java.time.LocalDateTime;
+
+/**
+ * Measures entity insert throughput through Hibernate (id generation plus JDBC batching).
+ * Enabled with the "insert-benchmark" profile; runs after seeding and rolls back everything it inserts,
+ * so only the id sequences advance. It lives with the benchmarks, so it is not in the application jar;
+ * the benchmarks profile starts the application on the test classpath, where component scanning finds it:
+ *
+ *   mvn -Pbenchmarks test-compile exec:exec@app \
+ *       -Dapp.args="--spring.profiles.active=insert-benchmark --benchmark.insert.rows=20000"
+ */
+@Component
+@Profile("insert-benchmark")
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class InsertThroughputBenchmark implements CommandLineRunner {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int rows;
+    private final int flushEvery;
+    private final int rounds;
+
+    public InsertThroughputBenchmark(EntityManager entityManager,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${benchmark.insert.rows:20000}") int rows,
+                                     @Value("${benchmark.insert.flush-every:500}") int flushEvery,
+                                     @Value("${benchmark.insert.rounds:5}") int rounds) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.rows = rows;
+        this.flushEvery = flushEvery;
+        this.rounds = rounds;
+    }
+
+    @Override
+    public void run(String... args) {
+        // The first round warms up the JIT and connection pool and is not reported
+        for (int round = 0; round <= rounds; round++) {
+            long started = System.nanoTime();
+            insertAndRollBack();
+            double seconds = (System.nanoTime() - started) / 1e9;
+            if (round > 0) {
+                System.out.printf("Insert benchmark round %d: %d rows in %.3f s (%.0f rows/s)%n",
+                        round, 2L * rows, seconds, 2L * rows / seconds);
+            }
+        }
+    }
+
+    private void insertAndRollBack() {
+        LocalDateTime departure = LocalDateTime.now().plusYears(1);
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 1; i <= rows; i++) {
+                entityManager.persist(new Destination("Bench " + i, "Benchmark", "Insert benchmark row", "Temperate"));
+                entityManager.persist(new Flight("BF" + i, "Bench Air", "AAA", "BBB",
+                        departure, departure.plusHours(2)));
+                if (i % flushEvery == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+            status.setRollbackOnly();
+        });
+    }
+}
@@ -0,0 +1,189 @@
+package travelagency.persistence;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import travelagency.model.AdventureTrip;
+import travelagency.model.CulturalTrip;
+import travelagency.model.Destination;
+import travelagency.model.Trip;
+import travelagency.model.VacationTrip;
+import travelagency.model.enums.DifficultyLevel;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the trip table layouts: insert cost of the three trip types through Hibernate, and latency of
+ * the polymorphic reads the catalog does (lookup by id, a listing page, a subtype filter, counts per type).
+ * Enabled with the "layout-benchmark" profile and started through the benchmarks profile, so it is not in
+ * the application jar. Run it once as is (SINGLE_TABLE) and once with the trips-joined profile added, each
+ * against a fresh in-memory database:
+ *
+ *   mvn -Pbenchmarks test-compile exec:exec@app -Dapp.args="--spring.profiles.active=layout-benchmark \
+ *       --spring.datasource.url=jdbc:h2:mem:layout"
+ *   mvn -Pbenchmarks test-compile exec:exec@app -Dapp.args="--spring.profiles.active=layout-benchmark,trips-joined \
+ *       --spring.datasource.url=jdbc:h2:mem:layout"
+ *
+ * Each round inserts benchmark.layout.trips trips, queries them in the same transaction and rolls back.
+ * The second-level cache is bypassed so every read reaches the database. One warm-up round runs first and
+ * is not reported, then benchmark.layout.rounds measured rounds (6 by default).
+ */
+@Component
+@Profile("layout-benchmark")
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class TripLayoutBenchmark implements CommandLineRunner {
+
+    private static final int FLUSH_EVERY = 500;
+    private static final int PAGE_SIZE = 50;
+    // Listings load destination and flight with the trip, as the catalog does
+    private static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Statistics statistics;
+    private final String layout;
+    private final int trips;
+    private final int queries;
+    private final int rounds;
+
+    public TripLayoutBenchmark(EntityManager entityManager,
+                               EntityManagerFactory entityManagerFactory,
+                               TransactionTemplate transactionTemplate,
+                               TripSingleTableMigration tripLayout,
+                               @Value("${benchmark.layout.trips:20000}") int trips,
+                               @Value("${benchmark.layout.queries:2000}") int queries,
+                               @Value("${benchmark.layout.rounds:6}") int rounds) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.layout = tripLayout.singleTable() ? "SINGLE_TABLE" : "JOINED";
+        this.trips = trips;
+        this.queries = queries;
+        this.rounds = rounds;
+    }
+
+    @Override
+    public void run(String... args) {
+        Map<String, List<Long>> latencies = new LinkedHashMap<>();
+        Map<String, Long> statements = new LinkedHashMap<>();
+        long insertNanos = 0;
+        // Round 0 is the warm-up
+        for (int round = 0; round <= rounds; round++) {
+            int seed = round;
+            Round result = transactionTemplate.execute(status -> {
+                entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+                Round r = insertAndQuery(new SplittableRandom(seed));
+                status.setRollbackOnly();
+                return r;
+            });
+            if (round == 0) continue;
+            insertNanos += result.insertNanos();
+            result.latencies().forEach((op, samples) -> latencies.computeIfAbsent(op, k -> new ArrayList<>()).addAll(samples));
+            result.statements().forEach((op, count) -> statements.merge(op, count, Long::sum));
+        }
+
+        long inserted = (long) trips * rounds;
+        System.out.printf("Trip layout %s: %d trip inserts, %.0f trips/s%n",
+                layout, inserted, inserted / (insertNanos / 1e9));
+        latencies.forEach((op, samples) -> {
+            long[] sorted = samples.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("Trip layout %s: %-12s p50 %.3f ms, p99 %.3f ms, mean %.3f ms, %.1f statements%n",
+                    layout, op, sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6,
+                    Arrays.stream(sorted).average().orElse(0) / 1e6, (double) statements.get(op) / sorted.length);
+        });
+    }
+
+    private Round insertAndQuery(SplittableRandom random) {
+        LocalDate departure = LocalDate.now().plusMonths(6);
+        Destination destination = new Destination("Layout Bench", "Benchmark", "Trip layout benchmark", "Temperate");
+        entityManager.persist(destination);
+        List<Long> ids = new ArrayList<>(trips);
+
+        long started = System.nanoTime();
+        for (int i = 0; i < trips; i++) {
+            Trip trip = newTrip(i, destination, departure);
+            entityManager.persist(trip);
+            ids.add(trip.getTripId());
+            if ((i + 1) % FLUSH_EVERY == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        long insertNanos = System.nanoTime() - started;
+
+        Map<String, List<Long>> latencies = new LinkedHashMap<>();
+        Map<String, Long> statements = new LinkedHashMap<>();
+        measure("find by id", latencies, statements, () ->
+                entityManager.find(Trip.class, ids.get(random.nextInt(ids.size()))));
+        measure("catalog page", latencies, statements, () ->
+                entityManager.createQuery("select t from Trip t order by t.tripId", Trip.class)
+                        .setHint(FETCH_GRAPH, entityManager.getEntityGraph("Trip.catalog"))
+                        .setFirstResult(random.nextInt(Math.max(1, trips - PAGE_SIZE)))
+                        .setMaxResults(PAGE_SIZE).getResultList());
+        measure("subtype page", latencies, statements, () ->
+                entityManager.createQuery("select t from AdventureTrip t where t.difficultyLevel = :level "
+                                + "order by t.tripId", AdventureTrip.class)
+                        .setHint(FETCH_GRAPH, entityManager.getEntityGraph("Trip.catalog"))
+                        .setParameter("level", DifficultyLevel.values()[random.nextInt(DifficultyLevel.values().length)])
+                        .setMaxResults(PAGE_SIZE).getResultList());
+        measure("count by type", latencies, statements, () ->
+                entityManager.createQuery("select type(t), count(t) from Trip t group by type(t)", Object[].class)
+                        .getResultList());
+        return new Round(insertNanos, latencies, statements);
+    }
+
+    private void measure(String op, Map<String, List<Long>> latencies, Map<String, Long> statements,
+                         Runnable query) {
+        List<Long> samples = new ArrayList<>(queries);
+        long statementsBefore = statistics.getPrepareStatementCount();
+        for (int q = 0; q < queries; q++) {
+            long started = System.nanoTime();
+            query.run();
+            samples.add(System.nanoTime() - started);
+            entityManager.clear();
+        }
+        latencies.put(op, samples);
+        statements.put(op, statistics.getPrepareStatementCount() - statementsBefore);
+    }
+
+    private static Trip newTrip(int i, Destination destination, LocalDate departure) {
+        String code = "LB-" + i;
+        LocalDate dep = departure.plusDays(i % 180);
+        BigDecimal price = BigDecimal.valueOf(500 + i % 2000);
+        switch (i % 3) {
+            case 0:
+                return new AdventureTrip(code, "Bench trek " + i, "Layout benchmark", destination, dep,
+                        dep.plusDays(7), price, 20, DifficultyLevel.values()[i % DifficultyLevel.values().length], true);
+            case 1:
+                CulturalTrip cultural = new CulturalTrip(code, "Bench tour " + i, "Layout benchmark", destination,
+                        dep, dep.plusDays(5), price, 30, true);
+                cultural.addHistoricalSite("Old Town");
+                cultural.addHistoricalSite("Cathedral");
+                return cultural;
+            default:
+                return new VacationTrip(code, "Bench escape " + i, "Layout benchmark", destination, dep,
+                        dep.plusDays(10), price, 40, "Bench Resort", i % 2 == 0);
+        }
+    }
+
+    private record Round(long insertNanos, Map<String, List<Long>> latencies, Map<String, Long> statements) {}
+}
@@ -6,6 +6,10 @@ import travelagency.model.enums.PaymentMethod;
 import travelagency.model.enums.ReservationStatus;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Quick test to verify backend model classes
@@ -90,6 +94,32 @@ public class QuickTest {
         culturalTrip.setFlight(flight);
         System.out.println("✓ Composition (Trip-Flight): " + culturalTrip.getFlight().getFlightNumber());
 
+        // 13. Test Reservation Numbers (unique under concurrency)
+        int threads = 8, perThread = 100_000;
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) numbers.add(ReservationNumbers.next());
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (numbers.size() != threads * perThread) {
+            throw new IllegalStateException("Duplicate reservation numbers: "
+                    + (threads * perThread - numbers.size()));
+        }
+        System.out.println("✓ Reservation Numbers: " + numbers.size() + " unique across " + threads
+                + " threads, e.g. " + reservation.getReservationNumber());
+
         System.out.println("\n All backend model tests passed!");
     }
 }
@@ -0,0 +1,16 @@
+package travelagency.analytics;
+
+import travelagency.model.enums.ReservationStatus;
+
+/**
+ * Published inside the transaction that moved reservations of one trip from one status to another;
+ * from is null for new reservations. Several reservations may be reported at once, seats being their
+ * total numberOfPeople. Read models apply it after commit.
+ */
+public record ReservationStatusChangedEvent(long tripId, ReservationStatus from, ReservationStatus to,
+                                            int reservations, int seats) {
+
+    public static ReservationStatusChangedEvent booked(long tripId, int seats) {
+        return new ReservationStatusChangedEvent(tripId, null, ReservationStatus.PENDING, 1, seats);
+    }
+}
@@ -0,0 +1,280 @@
+package travelagency.analytics;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import travelagency.catalog.TripCatalogChangedEvent;
+import travelagency.dto.OccupancyRollupDto;
+import travelagency.dto.RevenueRollupDto;
+import travelagency.model.enums.ReservationStatus;
+import travelagency.repository.ReservationRepository;
+import travelagency.repository.TripRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Revenue and occupancy by trip type, destination and departure month, kept in memory and updated as
+ * reservations change status, so a dashboard query sums a few thousand counters instead of scanning
+ * the reservations.
+ *
+ * Every trip keeps its reservations and seats per bucket: PENDING, and CONFIRMED or COMPLETED. Next to
+ * them it keeps its type, destination, departure month, final price and capacity. Every
+ * (type, destination, month) group holds the sums of its trips. Revenue is seats times the trip's
+ * current final price, as in Reservation.getTotalPrice; occupancy is seats not cancelled over capacity,
+ * as in Trip.bookedSeats.
+ *
+ * Status changes arrive as ReservationStatusChangedEvent after commit. Completion keeps a reservation
+ * in its bucket, so the lifecycle job's set-based completion publishes nothing. The trip's buckets are
+ * then re-read from its reservations rather than shifted by the event's counts: a rebuild that read
+ * them after the commit already includes the change. The re-read runs under one of STRIPES locks, so
+ * of two changes to a trip the later read always lands last.
+ *
+ * The rollups are rebuilt from two aggregate queries once the application is ready, every
+ * analytics.rebuild-interval and on demand. A rebuild also repairs drift from rows changed outside the
+ * services, such as plain SQL or edited prices. A catalog change (import, counter recount) triggers a
+ * rebuild as well. Queries and status changes keep going while a rebuild reads; trips changed in the
+ * meantime are re-read into the new rollups once they are swapped in.
+ */
+@Component
+public class RevenueRollups {
+
+    public enum Dimension { TYPE, DESTINATION, MONTH }
+
+    private static final int STRIPES = 64;
+
+    private final TripRepository tripRepository;
+    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Guarded by this
+    private Map<Long, TripTotals> trips = new HashMap<>();
+    private Map<GroupKey, GroupTotals> groups = new HashMap<>();
+    private volatile RollupRebuild lastRebuild;
+    private final Object[] stripeLocks = new Object[STRIPES];
+    // One rebuild at a time; held while reading, unlike this
+    private final Object rebuildLock = new Object();
+    // Trips changed since the running rebuild started, or null outside a rebuild
+    private final Object pendingLock = new Object();
+    private Set<Long> changedDuringRebuild;
+
+    public RevenueRollups(TripRepository tripRepository,
+                          ReservationRepository reservationRepository,
+                          PlatformTransactionManager transactionManager) {
+        this.tripRepository = tripRepository;
+        this.reservationRepository = reservationRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Reloads run from after-commit listeners, where the finished transaction is still bound
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < STRIPES; i++) stripeLocks[i] = new Object();
+    }
+
+    /** Revenue per value of the dimension, for trips departing between from and to (both optional). */
+    public synchronized List<RevenueRollupDto> revenue(Dimension by, YearMonth from, YearMonth to) {
+        return rollUp(by, from, to).entrySet().stream()
+                .map(row -> new RevenueRollupDto(row.getKey(), row.getValue().reservations,
+                        row.getValue().pendingSeats + row.getValue().confirmedSeats,
+                        money(row.getValue().pendingRevenue), money(row.getValue().confirmedRevenue)))
+                .toList();
+    }
+
+    /** Occupancy per value of the dimension, for trips departing between from and to (both optional). */
+    public synchronized List<OccupancyRollupDto> occupancy(Dimension by, YearMonth from, YearMonth to) {
+        return rollUp(by, from, to).entrySet().stream()
+                .map(row -> {
+                    GroupTotals totals = row.getValue();
+                    long seats = totals.pendingSeats + totals.confirmedSeats;
+                    double percent = totals.capacity > 0 ? Math.round(seats * 1000.0 / totals.capacity) / 10.0 : 0;
+                    return new OccupancyRollupDto(row.getKey(), totals.trips, totals.capacity, seats, percent);
+                })
+                .toList();
+    }
+
+    public RollupRebuild lastRebuild() {
+        return lastRebuild;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${analytics.rebuild-interval:PT24H}",
+            initialDelayString = "${analytics.rebuild-interval:PT24H}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    public RollupRebuild rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (pendingLock) {
+                changedDuringRebuild = new HashSet<>();
+            }
+            Instant startedAt = Instant.now();
+            long started = System.nanoTime();
+            Map<Long, TripTotals> rebuiltTrips = new HashMap<>();
+            Long reservations = readOnlyTransaction.execute(status -> {
+                tripRepository.findRollupFacts().forEach(facts ->
+                        rebuiltTrips.put(facts.getTripId(), new TripTotals(GroupKey.of(facts), facts)));
+                long read = 0;
+                for (ReservationRepository.TripStatusTotals totals : reservationRepository.sumByTripAndStatus()) {
+                    read += totals.getReservations();
+                    TripTotals trip = rebuiltTrips.get(totals.getTripId());
+                    if (trip != null) trip.apply(totals.getStatus(), totals.getReservations(), totals.getSeats());
+                }
+                return read;
+            });
+            Map<GroupKey, GroupTotals> rebuiltGroups = new HashMap<>();
+            rebuiltTrips.values().forEach(trip ->
+                    rebuiltGroups.computeIfAbsent(trip.key, k -> new GroupTotals()).add(trip, 1));
+            synchronized (this) {
+                trips = rebuiltTrips;
+                groups = rebuiltGroups;
+            }
+            Set<Long> changed;
+            synchronized (pendingLock) {
+                changed = changedDuringRebuild;
+                changedDuringRebuild = null;
+            }
+            changed.forEach(this::refreshTrip);
+
+            RollupRebuild rebuild = new RollupRebuild(startedAt, (System.nanoTime() - started) / 1_000_000,
+                    rebuiltTrips.size(), reservations != null ? reservations : 0, rebuiltGroups.size());
+            lastRebuild = rebuild;
+            System.out.println("Revenue rollups rebuilt: " + rebuild.trips() + " trips, " + rebuild.reservations()
+                    + " reservations, " + rebuild.groups() + " groups in " + rebuild.durationMillis() + " ms");
+            return rebuild;
+        }
+    }
+
+    // The re-read joins the finished transaction and reuses its connection; a new transaction would hold
+    // a second pooled connection per booking thread and can exhaust the pool
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(ReservationStatusChangedEvent event) {
+        synchronized (pendingLock) {
+            if (changedDuringRebuild != null) changedDuringRebuild.add(event.tripId());
+        }
+        refreshTrip(event.tripId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(TripCatalogChangedEvent event) {
+        rebuild();
+    }
+
+    // A trip the rollups do not know yet is counted by the catalog event or rebuild that adds it
+    private void refreshTrip(long tripId) {
+        synchronized (stripeLocks[(int) Math.floorMod(tripId, (long) STRIPES)]) {
+            List<ReservationRepository.TripStatusTotals> totals = reservationRepository.sumByStatusForTrip(tripId);
+            synchronized (this) {
+                TripTotals trip = trips.get(tripId);
+                if (trip == null) return;
+                GroupTotals group = groups.get(trip.key);
+                group.add(trip, -1);
+                trip.clear();
+                totals.forEach(t -> trip.apply(t.getStatus(), t.getReservations(), t.getSeats()));
+                group.add(trip, 1);
+            }
+        }
+    }
+
+    private Map<String, GroupTotals> rollUp(Dimension by, YearMonth from, YearMonth to) {
+        Map<String, GroupTotals> rows = new TreeMap<>();
+        groups.forEach((key, totals) -> {
+            if ((from != null && key.month().isBefore(from)) || (to != null && key.month().isAfter(to))) return;
+            rows.computeIfAbsent(key.label(by), k -> new GroupTotals()).add(totals);
+        });
+        return rows;
+    }
+
+    private static BigDecimal money(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private record GroupKey(String type, String destination, YearMonth month) {
+        static GroupKey of(TripRepository.RollupFacts facts) {
+            return new GroupKey(facts.getType(), facts.getDestination(), YearMonth.from(facts.getDepartureDate()));
+        }
+
+        String label(Dimension by) {
+            return switch (by) {
+                case TYPE -> type;
+                case DESTINATION -> destination;
+                case MONTH -> month.toString();
+            };
+        }
+    }
+
+    private static final class TripTotals {
+        final GroupKey key;
+        final BigDecimal finalPrice;
+        final int capacity;
+        long reservations;
+        long pendingSeats;
+        long confirmedSeats;
+
+        TripTotals(GroupKey key, TripRepository.RollupFacts facts) {
+            this.key = key;
+            this.finalPrice = facts.getFinalPrice() != null ? facts.getFinalPrice() : BigDecimal.ZERO;
+            this.capacity = facts.getCapacity() != null ? facts.getCapacity() : 0;
+        }
+
+        void apply(ReservationStatus status, long reservations, long seats) {
+            switch (status) {
+                case PENDING -> pendingSeats += seats;
+                case CONFIRMED, COMPLETED -> confirmedSeats += seats;
+                // Cancelled reservations neither earn nor take seats
+                case CANCELLED -> { return; }
+            }
+            this.reservations += reservations;
+        }
+
+        void clear() {
+            reservations = 0;
+            pendingSeats = 0;
+            confirmedSeats = 0;
+        }
+    }
+
+    private static final class GroupTotals {
+        int trips;
+        long capacity;
+        long reservations;
+        long pendingSeats;
+        long confirmedSeats;
+        BigDecimal pendingRevenue = BigDecimal.ZERO;
+        BigDecimal confirmedRevenue = BigDecimal.ZERO;
+
+        // sign -1 takes the trip out before its counts change, +1 puts it back
+        void add(TripTotals trip, int sign) {
+            trips += sign;
+            capacity += (long) sign * trip.capacity;
+            reservations += sign * trip.reservations;
+            pendingSeats += sign * trip.pendingSeats;
+            confirmedSeats += sign * trip.confirmedSeats;
+            pendingRevenue = pendingRevenue.add(trip.finalPrice.multiply(BigDecimal.valueOf(sign * trip.pendingSeats)));
+            confirmedRevenue = confirmedRevenue.add(
+                    trip.finalPrice.multiply(BigDecimal.valueOf(sign * trip.confirmedSeats)));
+        }
+
+        void add(GroupTotals other) {
+            trips += other.trips;
+            capacity += other.capacity;
+            reservations += other.reservations;
+            pendingSeats += other.pendingSeats;
+            confirmedSeats += other.confirmedSeats;
+            pendingRevenue = pendingRevenue.add(other.pendingRevenue);
+            confirmedRevenue = confirmedRevenue.add(other.confirmedRevenue);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package travelagency.analytics;
+
+import java.time.Instant;
+
+public record RollupRebuild(
+        Instant startedAt,
+        long durationMillis,
+        int trips,
+        long reservations,
+        int groups
+) {}
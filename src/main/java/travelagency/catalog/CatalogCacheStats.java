@@ -0,0 +1,9 @@
+package travelagency.catalog;
+
+public record CatalogCacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        int size,
+        int maxEntries
+) {}
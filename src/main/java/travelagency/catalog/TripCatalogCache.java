@@ -0,0 +1,223 @@
+package travelagency.catalog;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import travelagency.dto.TripDto;
+import travelagency.mapper.TripMapper;
+import travelagency.metrics.RequestMetrics;
+import travelagency.model.Trip;
+import travelagency.repository.TripRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read model of the trip catalog: immutable TripDto snapshots keyed by trip id.
+ *
+ * Reads are lock-free map lookups; misses load through the catalog entity graph. The map is bounded
+ * with first-in-first-out eviction. After a seat change commits, a cached snapshot gets its
+ * availableSpots re-read from the trip row, and catalog changes drop all snapshots.
+ *
+ * A load may race a seat change: it can read the row before the commit and put its snapshot after the
+ * change was applied. Every trip id therefore falls in one of STRIPES stripes with a version, bumped
+ * under the stripe's lock by each seat change (and eviction) before it touches the map. A load notes
+ * the versions before it reads and caches a snapshot only if its stripe has not moved since; otherwise
+ * it returns the snapshot uncached and the next read loads again.
+ */
+@Component
+public class TripCatalogCache {
+
+    private static final int STRIPES = 64;
+
+    private final TripRepository tripRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxEntries;
+
+    private final Map<Long, TripDto> entries = new ConcurrentHashMap<>();
+    private final Queue<Long> insertionOrder = new ConcurrentLinkedQueue<>();
+    // Ids of the whole catalog in listing order, or null until loaded / after a structural change
+    private volatile List<Long> catalogIds;
+    // Incremented under the stripe's lock; stripe = trip id mod STRIPES
+    private final AtomicLongArray stripeVersions = new AtomicLongArray(STRIPES);
+    private final Object[] stripeLocks = new Object[STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TripCatalogCache(TripRepository tripRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${catalog.cache.max-entries:10000}") int maxEntries) {
+        this.tripRepository = tripRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxEntries = maxEntries;
+        for (int i = 0; i < STRIPES; i++) stripeLocks[i] = new Object();
+    }
+
+    public Optional<TripDto> get(long tripId) {
+        TripDto cached = entries.get(tripId);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+        long[] seen = stripeVersions();
+        Optional<TripDto> loaded = readOnlyTransaction.execute(status -> {
+            Optional<Trip> trip = tripRepository.findCatalogEntryByTripId(tripId);
+            return RequestMetrics.mapping(() -> trip.map(TripMapper::toDto));
+        });
+        loaded.ifPresent(dto -> putIfUnchanged(dto, seen));
+        return loaded;
+    }
+
+    /** Snapshots of the given trips in the given order; all misses are loaded in one query. */
+    public List<TripDto> getAll(List<Long> tripIds) {
+        Map<Long, TripDto> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : tripIds) {
+            TripDto cached = entries.get(id);
+            if (cached != null) {
+                hits.increment();
+                found.put(id, cached);
+            } else {
+                misses.increment();
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long[] seen = stripeVersions();
+            readOnlyTransaction.execute(status -> {
+                        List<Trip> trips = tripRepository.findCatalogEntriesByTripIdIn(missing);
+                        return RequestMetrics.mapping(() -> trips.stream().map(TripMapper::toDto).toList());
+                    })
+                    .forEach(dto -> {
+                        putIfUnchanged(dto, seen);
+                        found.put(dto.id(), dto);
+                    });
+        }
+        return tripIds.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    public List<TripDto> getAll() {
+        List<Long> ids = catalogIds;
+        if (ids != null) {
+            List<TripDto> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                TripDto dto = entries.get(id);
+                if (dto == null) break; // evicted: fall back to a full load
+                result.add(dto);
+            }
+            if (result.size() == ids.size()) {
+                hits.increment();
+                return result;
+            }
+        }
+        misses.increment();
+        long[] seen = stripeVersions();
+        List<TripDto> loaded = readOnlyTransaction.execute(status -> {
+            List<Trip> trips = tripRepository.findCatalog();
+            return RequestMetrics.mapping(() -> trips.stream().map(TripMapper::toDto).toList());
+        });
+        boolean allCached = true;
+        for (TripDto dto : loaded) allCached &= putIfUnchanged(dto, seen);
+        // Only a catalog that fits, and that no change overtook while loading, is served from memory next time
+        if (allCached && loaded.size() <= maxEntries) {
+            catalogIds = loaded.stream().map(TripDto::id).toList();
+        }
+        return loaded;
+    }
+
+    public void evict(long tripId) {
+        int stripe = stripe(tripId);
+        synchronized (stripeLocks[stripe]) {
+            stripeVersions.incrementAndGet(stripe);
+            entries.remove(tripId);
+            insertionOrder.remove(tripId);
+        }
+        catalogIds = null;
+    }
+
+    public void evictAll() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            synchronized (stripeLocks[stripe]) {
+                stripeVersions.incrementAndGet(stripe);
+            }
+        }
+        entries.clear();
+        insertionOrder.clear();
+        catalogIds = null;
+    }
+
+    public CatalogCacheStats stats() {
+        return new CatalogCacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), maxEntries);
+    }
+
+    // Sets the seats left as read from the row: a delta would count twice in a snapshot loaded after the
+    // commit. The re-read happens under the stripe's lock, so a later change of the trip cannot be
+    // overwritten by an earlier read. It joins the finished transaction and reuses its connection; a new
+    // transaction would hold a second pooled connection per booking thread and can exhaust the pool.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsChanged(TripSeatsChangedEvent event) {
+        long tripId = event.tripId();
+        int stripe = stripe(tripId);
+        synchronized (stripeLocks[stripe]) {
+            stripeVersions.incrementAndGet(stripe);
+            if (!entries.containsKey(tripId)) return;
+            Optional<Integer> spots = tripRepository.findAvailableSpots(tripId);
+            if (spots.isPresent()) {
+                entries.computeIfPresent(tripId, (id, dto) -> TripMapper.withAvailableSpots(dto, spots.get()));
+            } else {
+                entries.remove(tripId);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(TripCatalogChangedEvent event) {
+        evictAll();
+    }
+
+    private long[] stripeVersions() {
+        long[] versions = new long[STRIPES];
+        for (int stripe = 0; stripe < STRIPES; stripe++) versions[stripe] = stripeVersions.get(stripe);
+        return versions;
+    }
+
+    private static int stripe(long tripId) {
+        return (int) Math.floorMod(tripId, (long) STRIPES);
+    }
+
+    // Caches a loaded snapshot unless a seat change or eviction in its stripe overtook the load
+    private boolean putIfUnchanged(TripDto dto, long[] seen) {
+        int stripe = stripe(dto.id());
+        synchronized (stripeLocks[stripe]) {
+            if (stripeVersions.get(stripe) != seen[stripe]) return false;
+            put(dto);
+            return true;
+        }
+    }
+
+    private void put(TripDto dto) {
+        if (entries.put(dto.id(), dto) == null) {
+            insertionOrder.add(dto.id());
+            while (entries.size() > maxEntries) {
+                Long oldest = insertionOrder.poll();
+                if (oldest == null) break;
+                if (entries.remove(oldest) != null) evictions.increment();
+            }
+        }
+    }
+}
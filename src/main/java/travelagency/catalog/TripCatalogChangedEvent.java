@@ -0,0 +1,13 @@
+package travelagency.catalog;
+
+/**
+ * Published when trip rows themselves changed (created, edited, counters recomputed). The writers
+ * (imports, the booked-seats reconciler) touch many trips at once, so the event names none: read
+ * models reload the whole catalog.
+ */
+public record TripCatalogChangedEvent() {
+
+    public static TripCatalogChangedEvent all() {
+        return new TripCatalogChangedEvent();
+    }
+}
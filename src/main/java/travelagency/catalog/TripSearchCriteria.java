@@ -0,0 +1,23 @@
+package travelagency.catalog;
+
+import travelagency.model.enums.DifficultyLevel;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Filters of GET /api/trips/search; null components do not filter.
+ * Text attributes (type, destination, country) match case-insensitively.
+ */
+public record TripSearchCriteria(
+        String type,
+        String destination,
+        String country,
+        LocalDate departureFrom,
+        LocalDate departureTo,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Integer minAvailableSpots,
+        DifficultyLevel difficultyLevel,
+        Boolean allInclusive
+) {}
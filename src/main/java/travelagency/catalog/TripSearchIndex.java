@@ -0,0 +1,220 @@
+package travelagency.catalog;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import travelagency.dto.TripDto;
+import travelagency.mapper.TripMapper;
+import travelagency.repository.TripRepository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * In-memory attribute index over the whole trip catalog for multi-attribute filtering.
+ *
+ * Every trip gets a dense slot. Categorical attributes (type, destination, country, difficulty,
+ * all-inclusive) map to one BitSet of slots per value; departure date and final price are slot arrays
+ * sorted by key, so a range is two binary searches. A query ANDs the bitsets and checks the
+ * frequently changing availableSpots per remaining slot.
+ *
+ * The index is an immutable snapshot swapped on trip changes; seat changes only patch the spots array.
+ * After a seat change commits, the trip's spots are re-read from its row under one of STRIPES locks,
+ * so of two changes to a trip the later read always lands last. A rebuild may read a row before a
+ * change commits and swap in its snapshot after the change patched the old one; trips changed while
+ * a rebuild runs are therefore collected and re-read into the new snapshot once it is swapped in.
+ */
+@Component
+public class TripSearchIndex {
+
+    private static final int PRICE_SCALE = 4;
+    private static final int STRIPES = 64;
+
+    private final TripRepository tripRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private volatile Snapshot snapshot = Snapshot.build(List.of());
+    private final Object[] stripeLocks = new Object[STRIPES];
+    // Trips whose seats changed since the running rebuild started, or null outside a rebuild
+    private final Object pendingLock = new Object();
+    private Set<Long> changedDuringRebuild;
+
+    public TripSearchIndex(TripRepository tripRepository, PlatformTransactionManager transactionManager) {
+        this.tripRepository = tripRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Reloads run from after-commit listeners, where the finished transaction is still bound
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        for (int i = 0; i < STRIPES; i++) stripeLocks[i] = new Object();
+    }
+
+    public List<TripDto> search(TripSearchCriteria criteria, int limit) {
+        Snapshot s = snapshot;
+        BitSet matches = new BitSet(s.trips.length);
+        matches.set(0, s.trips.length);
+
+        if (criteria.type() != null) and(matches, s.byType, criteria.type());
+        if (criteria.destination() != null) and(matches, s.byDestination, criteria.destination());
+        if (criteria.country() != null) and(matches, s.byCountry, criteria.country());
+        if (criteria.difficultyLevel() != null) and(matches, s.byDifficulty, criteria.difficultyLevel().name());
+        if (criteria.allInclusive() != null) {
+            matches.and(criteria.allInclusive() ? s.allInclusive : s.notAllInclusive);
+        }
+        if (criteria.departureFrom() != null || criteria.departureTo() != null) {
+            long from = criteria.departureFrom() != null ? criteria.departureFrom().toEpochDay() : Long.MIN_VALUE;
+            long to = criteria.departureTo() != null ? criteria.departureTo().toEpochDay() : Long.MAX_VALUE;
+            matches.and(s.departure.range(from, to));
+        }
+        if (criteria.minPrice() != null || criteria.maxPrice() != null) {
+            long from = criteria.minPrice() != null ? priceKey(criteria.minPrice(), RoundingMode.CEILING) : Long.MIN_VALUE;
+            long to = criteria.maxPrice() != null ? priceKey(criteria.maxPrice(), RoundingMode.FLOOR) : Long.MAX_VALUE;
+            matches.and(s.finalPrice.range(from, to));
+        }
+
+        List<TripDto> result = new ArrayList<>();
+        for (int slot = matches.nextSetBit(0); slot >= 0 && result.size() < limit; slot = matches.nextSetBit(slot + 1)) {
+            int spots = s.availableSpots.get(slot);
+            if (criteria.minAvailableSpots() != null && spots < criteria.minAvailableSpots()) continue;
+            TripDto dto = s.trips[slot];
+            result.add(dto.availableSpots() == spots ? dto : TripMapper.withAvailableSpots(dto, spots));
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        synchronized (pendingLock) {
+            changedDuringRebuild = new HashSet<>();
+        }
+        List<TripDto> trips = readOnlyTransaction.execute(status ->
+                tripRepository.findCatalog().stream().map(TripMapper::toDto).toList());
+        snapshot = Snapshot.build(trips);
+        Set<Long> changed;
+        synchronized (pendingLock) {
+            changed = changedDuringRebuild;
+            changedDuringRebuild = null;
+        }
+        changed.forEach(this::refreshSpots);
+    }
+
+    // Re-reads the seats left instead of applying the delta, which a snapshot built after the commit
+    // already contains. The read joins the finished transaction and reuses its connection; a new
+    // transaction would hold a second pooled connection per booking thread and can exhaust the pool.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsChanged(TripSeatsChangedEvent event) {
+        synchronized (pendingLock) {
+            if (changedDuringRebuild != null) changedDuringRebuild.add(event.tripId());
+        }
+        refreshSpots(event.tripId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(TripCatalogChangedEvent event) {
+        rebuild();
+    }
+
+    private void refreshSpots(long tripId) {
+        synchronized (stripeLocks[(int) Math.floorMod(tripId, (long) STRIPES)]) {
+            Snapshot s = snapshot;
+            Integer slot = s.slotByTripId.get(tripId);
+            if (slot == null) return;
+            tripRepository.findAvailableSpots(tripId).ifPresent(spots -> s.availableSpots.set(slot, spots));
+        }
+    }
+
+    private static void and(BitSet matches, Map<String, BitSet> index, String value) {
+        BitSet slots = index.get(value.toLowerCase(Locale.ROOT));
+        if (slots == null) {
+            matches.clear();
+        } else {
+            matches.and(slots);
+        }
+    }
+
+    private static long priceKey(BigDecimal price, RoundingMode rounding) {
+        return price.setScale(PRICE_SCALE, rounding).unscaledValue().longValue();
+    }
+
+    private static final class Snapshot {
+        final TripDto[] trips;
+        final Map<Long, Integer> slotByTripId = new HashMap<>();
+        final AtomicIntegerArray availableSpots;
+        final Map<String, BitSet> byType = new HashMap<>();
+        final Map<String, BitSet> byDestination = new HashMap<>();
+        final Map<String, BitSet> byCountry = new HashMap<>();
+        final Map<String, BitSet> byDifficulty = new HashMap<>();
+        final BitSet allInclusive = new BitSet();
+        final BitSet notAllInclusive = new BitSet();
+        final SortedColumn departure;
+        final SortedColumn finalPrice;
+
+        private Snapshot(List<TripDto> source) {
+            trips = source.toArray(TripDto[]::new);
+            availableSpots = new AtomicIntegerArray(trips.length);
+            long[] departureKeys = new long[trips.length];
+            long[] priceKeys = new long[trips.length];
+            for (int slot = 0; slot < trips.length; slot++) {
+                TripDto t = trips[slot];
+                slotByTripId.put(t.id(), slot);
+                availableSpots.set(slot, t.availableSpots());
+                put(byType, t.type(), slot);
+                put(byDestination, t.destination(), slot);
+                put(byCountry, t.country(), slot);
+                put(byDifficulty, t.difficultyLevel(), slot);
+                if (t.allInclusive() != null) (t.allInclusive() ? allInclusive : notAllInclusive).set(slot);
+                departureKeys[slot] = t.departureDate() != null ? t.departureDate().toEpochDay() : Long.MIN_VALUE;
+                priceKeys[slot] = t.finalPrice() != null ? priceKey(t.finalPrice(), RoundingMode.HALF_UP) : Long.MIN_VALUE;
+            }
+            departure = new SortedColumn(departureKeys);
+            finalPrice = new SortedColumn(priceKeys);
+        }
+
+        static Snapshot build(List<TripDto> trips) {
+            return new Snapshot(trips);
+        }
+
+        private static void put(Map<String, BitSet> index, String value, int slot) {
+            if (value != null) index.computeIfAbsent(value.toLowerCase(Locale.ROOT), v -> new BitSet()).set(slot);
+        }
+    }
+
+    /** Slots ordered by a numeric key; a closed key range is a contiguous run found by binary search. */
+    private static final class SortedColumn {
+        final long[] keys;
+        final int[] slots;
+
+        SortedColumn(long[] keysBySlot) {
+            Integer[] order = new Integer[keysBySlot.length];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, Comparator.comparingLong(slot -> keysBySlot[slot]));
+            keys = new long[order.length];
+            slots = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                slots[i] = order[i];
+                keys[i] = keysBySlot[order[i]];
+            }
+        }
+
+        BitSet range(long from, long to) {
+            BitSet result = new BitSet();
+            for (int i = lowerBound(from); i < keys.length && keys[i] <= to; i++) {
+                result.set(slots[i]);
+            }
+            return result;
+        }
+
+        private int lowerBound(long key) {
+            int lo = 0, hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] < key) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
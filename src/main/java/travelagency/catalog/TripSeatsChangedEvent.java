@@ -0,0 +1,7 @@
+package travelagency.catalog;
+
+/**
+ * Published inside the transaction that moved seats on a trip; delta is seats booked (+) or released (-),
+ * 0 when held seats became booked. Read models apply it after commit.
+ */
+public record TripSeatsChangedEvent(long tripId, int delta) {}
@@ -0,0 +1,180 @@
+package travelagency.catalog;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import travelagency.model.CulturalTrip;
+import travelagency.model.Destination;
+import travelagency.model.Trip;
+import travelagency.model.VacationTrip;
+import travelagency.repository.TripRepository;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index for free-text trip search over trip, destination, historical-site and resort text.
+ *
+ * Terms are lower-cased, accent-folded words. Each posting holds a field-weighted term frequency
+ * (a word in the trip name counts more than one in a description). Query words also match as
+ * prefixes at a discount, so partial input like "colos" finds "colosseum". Scoring is BM25 over the
+ * weighted frequencies, scaled by the share of query words a trip matched.
+ */
+@Component
+public class TripTextIndex {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "at", "by", "for", "in", "of", "on", "or", "the", "to", "with");
+
+    // Field weights applied to each occurrence of a term
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float PLACE_WEIGHT = 2.0f;
+    private static final float TEXT_WEIGHT = 1.0f;
+
+    private static final double PREFIX_DISCOUNT = 0.6;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final TripRepository tripRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, Map<String, Float>> documents = new HashMap<>();
+    private final Map<Long, Float> documentLengths = new HashMap<>();
+    private double totalLength;
+
+    public TripTextIndex(TripRepository tripRepository, PlatformTransactionManager transactionManager) {
+        this.tripRepository = tripRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Reloads run from after-commit listeners, where the finished transaction is still bound
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public record Hit(long tripId, double score) {}
+
+    /** All matching trips, best first. */
+    public List<Hit> search(String query) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) return List.of();
+
+        lock.readLock().lock();
+        try {
+            int docCount = documents.size();
+            if (docCount == 0) return List.of();
+            double avgLength = totalLength / docCount;
+            Map<Long, double[]> scores = new HashMap<>(); // tripId -> {score, matched words}
+
+            for (String word : new LinkedHashSet<>(words)) {
+                // Best contribution per trip for this word, over the exact term and its prefix expansions
+                Map<Long, Double> best = new HashMap<>();
+                for (Map.Entry<String, Map<Long, Float>> term
+                        : postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+                    double boost = term.getKey().equals(word) ? 1.0 : PREFIX_DISCOUNT;
+                    Map<Long, Float> docs = term.getValue();
+                    double idf = Math.log(1 + (docCount - docs.size() + 0.5) / (docs.size() + 0.5));
+                    for (Map.Entry<Long, Float> posting : docs.entrySet()) {
+                        double tf = posting.getValue();
+                        double norm = K1 * (1 - B + B * documentLengths.get(posting.getKey()) / avgLength);
+                        double score = boost * idf * tf * (K1 + 1) / (tf + norm);
+                        best.merge(posting.getKey(), score, Math::max);
+                    }
+                }
+                best.forEach((tripId, score) -> {
+                    double[] acc = scores.computeIfAbsent(tripId, id -> new double[2]);
+                    acc[0] += score;
+                    acc[1]++;
+                });
+            }
+
+            int queryWords = new HashSet<>(words).size();
+            List<Hit> hits = new ArrayList<>(scores.size());
+            scores.forEach((tripId, acc) -> hits.add(new Hit(tripId, acc[0] * acc[1] / queryWords)));
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::tripId));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Long, Map<String, Float>> docs = readOnlyTransaction.execute(status -> {
+            Map<Long, Map<String, Float>> built = new HashMap<>();
+            for (Trip trip : tripRepository.findCatalog()) built.put(trip.getTripId(), terms(trip));
+            return built;
+        });
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            documentLengths.clear();
+            totalLength = 0;
+            docs.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(TripCatalogChangedEvent event) {
+        rebuild();
+    }
+
+    // ===== Index maintenance (write lock held) =====
+    private void add(long tripId, Map<String, Float> terms) {
+        float length = 0;
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), t -> new HashMap<>()).put(tripId, term.getValue());
+            length += term.getValue();
+        }
+        documents.put(tripId, terms);
+        documentLengths.put(tripId, length);
+        totalLength += length;
+    }
+
+    // ===== Document building =====
+    private static Map<String, Float> terms(Trip trip) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, trip.getName(), NAME_WEIGHT);
+        addField(terms, trip.getDescription(), TEXT_WEIGHT);
+        Destination d = trip.getDestination();
+        if (d != null) {
+            addField(terms, d.getName(), PLACE_WEIGHT);
+            addField(terms, d.getCountry(), PLACE_WEIGHT);
+            addField(terms, d.getDescription(), TEXT_WEIGHT);
+            addField(terms, d.getClimate(), TEXT_WEIGHT);
+        }
+        if (trip instanceof CulturalTrip ct) {
+            ct.getHistoricalSites().forEach(site -> addField(terms, site, PLACE_WEIGHT));
+        } else if (trip instanceof VacationTrip vt) {
+            addField(terms, vt.getResortName(), PLACE_WEIGHT);
+        }
+        return terms;
+    }
+
+    private static void addField(Map<String, Float> terms, String text, float weight) {
+        for (String word : tokenize(text)) terms.merge(word, weight, Float::sum);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) return List.of();
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        for (String word : NON_WORD.split(folded)) {
+            if (word.length() > 1 && !STOP_WORDS.contains(word)) words.add(word);
+        }
+        return words;
+    }
+}
@@ -0,0 +1,64 @@
+package travelagency.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import travelagency.analytics.RevenueRollups;
+import travelagency.analytics.RollupRebuild;
+
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    private static final String DIMENSION_ERROR = "by must be type, destination or month";
+
+    private final RevenueRollups revenueRollups;
+
+    public AnalyticsController(RevenueRollups revenueRollups) {
+        this.revenueRollups = revenueRollups;
+    }
+
+    // ?by=type|destination|month; ?from=2027-01&to=2027-06 limit the trips by departure month
+    @GetMapping("/revenue")
+    public ResponseEntity<?> getRevenue(@RequestParam(defaultValue = "type") String by,
+                                        @RequestParam(required = false) YearMonth from,
+                                        @RequestParam(required = false) YearMonth to) {
+        RevenueRollups.Dimension dimension = dimension(by);
+        if (dimension == null) return ResponseEntity.badRequest().body(Map.of("error", DIMENSION_ERROR));
+        return ResponseEntity.ok(revenueRollups.revenue(dimension, from, to));
+    }
+
+    @GetMapping("/occupancy")
+    public ResponseEntity<?> getOccupancy(@RequestParam(defaultValue = "type") String by,
+                                          @RequestParam(required = false) YearMonth from,
+                                          @RequestParam(required = false) YearMonth to) {
+        RevenueRollups.Dimension dimension = dimension(by);
+        if (dimension == null) return ResponseEntity.badRequest().body(Map.of("error", DIMENSION_ERROR));
+        return ResponseEntity.ok(revenueRollups.occupancy(dimension, from, to));
+    }
+
+    @GetMapping("/rebuild/stats")
+    public Map<String, Object> getRebuildStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("lastRebuild", revenueRollups.lastRebuild());
+        return result;
+    }
+
+    @PostMapping("/rebuild")
+    public RollupRebuild rebuild() {
+        return revenueRollups.rebuild();
+    }
+
+    private static RevenueRollups.Dimension dimension(String by) {
+        try {
+            return RevenueRollups.Dimension.valueOf(by.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
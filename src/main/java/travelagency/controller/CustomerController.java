@@ -1,12 +1,13 @@
 package travelagency.controller;
 
 import org.springframework.web.bind.annotation.*;
-import org.springframework.transaction.annotation.Transactional;
 import travelagency.dto.CustomerDto;
 import travelagency.dto.CustomerReservationDto;
 import travelagency.mapper.CustomerMapper;
-import travelagency.model.Reservation;
+import travelagency.metrics.RequestMetrics;
+import travelagency.model.Customer;
 import travelagency.repository.CustomerRepository;
+import travelagency.repository.ReservationRepository;
 
 import java.util.*;
 
@@ -16,35 +17,34 @@ import java.util.*;
 public class CustomerController {
 
     private final CustomerRepository customerRepository;
+    private final ReservationRepository reservationRepository;
 
-    public CustomerController(CustomerRepository customerRepository) {
+    public CustomerController(CustomerRepository customerRepository,
+                              ReservationRepository reservationRepository) {
         this.customerRepository = customerRepository;
+        this.reservationRepository = reservationRepository;
     }
 
     @GetMapping
     public List<CustomerDto> getAllCustomers() {
-        return customerRepository.findAll().stream()
+        List<Customer> customers = customerRepository.findAll();
+        return RequestMetrics.mapping(() -> customers.stream()
                 .map(CustomerMapper::toDto)
-                .toList();
+                .toList());
     }
 
     @GetMapping("/{id}")
     public CustomerDto getCustomer(@PathVariable long id) {
-        return customerRepository.findById(id)
-                .map(CustomerMapper::toDto)
-                .orElse(null);
+        Optional<Customer> customer = customerRepository.findById(id);
+        return RequestMetrics.mapping(() -> customer.map(CustomerMapper::toDto).orElse(null));
     }
 
-    @Transactional
     @GetMapping("/{id}/reservations")
-    public List<CustomerReservationDto> getCustomerReservations(@PathVariable long id) {
-        return customerRepository.findById(id)
-                .map(customer -> customer.getReservations().stream()
-                        .sorted(Comparator.comparing(Reservation::getReservationId,
-                                Comparator.nullsLast(Long::compareTo)).reversed()) // latest first
-                        .map(CustomerMapper::toReservationDto)
-                        .toList())
-                .orElse(Collections.emptyList());
+    public List<CustomerReservationDto> getCustomerReservations(
+            @PathVariable long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = KeysetPage.DEFAULT_LIMIT) int limit) {
+        return reservationRepository.findCustomerPage(id, KeysetPage.after(after), KeysetPage.limit(limit));
     }
 }
 
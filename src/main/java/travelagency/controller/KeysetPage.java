@@ -0,0 +1,26 @@
+package travelagency.controller;
+
+import org.springframework.data.domain.Limit;
+
+/**
+ * Request parameters of the newest-first reservation listings: {@code ?after=<reservationId>&limit=N}.
+ * Clients pass the reservationId of the last row they received to get the next page.
+ */
+final class KeysetPage {
+    static final String DEFAULT_LIMIT = "100";
+    static final int MAX_LIMIT = 500;
+
+    private KeysetPage() {}
+
+    static long after(Long after) {
+        return after != null ? after : Long.MAX_VALUE;
+    }
+
+    static Limit limit(int limit) {
+        return Limit.of(size(limit));
+    }
+
+    static int size(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -0,0 +1,107 @@
+package travelagency.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import travelagency.dto.PaymentSubmissionDto;
+import travelagency.model.enums.PaymentMethod;
+import travelagency.service.PaymentIngestionService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/payments")
+@CrossOrigin(origins = "*")
+public class PaymentController {
+
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private final PaymentIngestionService paymentIngestionService;
+
+    public PaymentController(PaymentIngestionService paymentIngestionService) {
+        this.paymentIngestionService = paymentIngestionService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> submitPayment(@RequestBody Map<String, Object> request) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        try {
+            Optional<PaymentSubmissionDto> queued = paymentIngestionService.submit(toSubmission(request));
+            if (queued.isEmpty()) {
+                result.put("error", "Payment queue is full, please retry later");
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header("Retry-After", RETRY_AFTER_SECONDS).body(result);
+            }
+            result.put("submissionId", queued.get().submissionId());
+            result.put("status", queued.get().status());
+            return ResponseEntity.accepted().body(result);
+        } catch (IllegalArgumentException e) {
+            result.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(result);
+        } catch (IllegalStateException e) {
+            result.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(result);
+        }
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> submitPayments(@RequestBody List<Map<String, Object>> request) {
+        List<Map<String, Object>> items = new ArrayList<>(request.size());
+        int accepted = 0;
+        for (Map<String, Object> item : request) {
+            Map<String, Object> itemResult = new LinkedHashMap<>();
+            try {
+                Optional<PaymentSubmissionDto> queued = paymentIngestionService.submit(toSubmission(item));
+                if (queued.isPresent()) {
+                    itemResult.put("submissionId", queued.get().submissionId());
+                    itemResult.put("status", queued.get().status());
+                    accepted++;
+                } else {
+                    itemResult.put("error", "Payment queue is full, please retry later");
+                }
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                itemResult.put("error", e.getMessage());
+            }
+            items.add(itemResult);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("accepted", accepted);
+        result.put("refused", request.size() - accepted);
+        result.put("results", items);
+        if (accepted == 0 && !request.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", RETRY_AFTER_SECONDS).body(result);
+        }
+        return ResponseEntity.accepted().body(result);
+    }
+
+    @GetMapping("/submissions/{submissionId}")
+    public ResponseEntity<PaymentSubmissionDto> getSubmission(@PathVariable String submissionId) {
+        return ResponseEntity.of(paymentIngestionService.status(submissionId));
+    }
+
+    @GetMapping("/queue")
+    public Map<String, Object> getQueue() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("queued", paymentIngestionService.queued());
+        return result;
+    }
+
+    private static PaymentIngestionService.Submission toSubmission(Map<String, Object> request) {
+        try {
+            Object paymentDate = request.get("paymentDate");
+            Object reference = request.get("transactionReference");
+            return new PaymentIngestionService.Submission(
+                    Objects.toString(request.get("reservationNumber"), null),
+                    request.get("amount") == null ? null : new BigDecimal(request.get("amount").toString()),
+                    request.get("method") == null ? null : PaymentMethod.valueOf(request.get("method").toString()),
+                    paymentDate == null ? null : LocalDate.parse(paymentDate.toString()),
+                    reference == null ? null : reference.toString());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid payment: " + e.getMessage());
+        }
+    }
+}
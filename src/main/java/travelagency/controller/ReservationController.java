@@ -1,16 +1,22 @@
 package travelagency.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import travelagency.dto.ReservationDto;
-import travelagency.mapper.ReservationMapper;
-import travelagency.model.Customer;
 import travelagency.model.Reservation;
-import travelagency.model.Trip;
-import travelagency.repository.CustomerRepository;
+import travelagency.persistence.ReservationLifecycleJob;
+import travelagency.persistence.ReservationLifecycleRun;
 import travelagency.repository.ReservationRepository;
-import travelagency.repository.TripRepository;
+import travelagency.service.BookingService;
+import travelagency.service.IdempotencyStore;
+import travelagency.service.ReservationExportService;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 @RestController
@@ -18,85 +24,163 @@ import java.util.*;
 @CrossOrigin(origins = "*")
 public class ReservationController {
 
-    private final CustomerRepository customerRepository;
-    private final TripRepository tripRepository;
     private final ReservationRepository reservationRepository;
-
-    public ReservationController(CustomerRepository customerRepository,
-                                 TripRepository tripRepository,
-                                 ReservationRepository reservationRepository) {
-        this.customerRepository = customerRepository;
-        this.tripRepository = tripRepository;
+    private final BookingService bookingService;
+    private final IdempotencyStore idempotencyStore;
+    private final ReservationLifecycleJob reservationLifecycleJob;
+    private final ReservationExportService reservationExportService;
+    private final int maxBatchSize;
+
+    public ReservationController(ReservationRepository reservationRepository,
+                                 BookingService bookingService,
+                                 IdempotencyStore idempotencyStore,
+                                 ReservationLifecycleJob reservationLifecycleJob,
+                                 ReservationExportService reservationExportService,
+                                 @Value("${reservations.batch.max-size:500}") int maxBatchSize) {
         this.reservationRepository = reservationRepository;
+        this.bookingService = bookingService;
+        this.idempotencyStore = idempotencyStore;
+        this.reservationLifecycleJob = reservationLifecycleJob;
+        this.reservationExportService = reservationExportService;
+        this.maxBatchSize = maxBatchSize;
     }
 
     @PostMapping
-    @Transactional
-    public Map<String, Object> createReservation(@RequestBody Map<String, Object> request) {
+    public Map<String, Object> createReservation(
+            @RequestBody Map<String, Object> request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            HttpServletResponse response) {
         long customerId = Long.parseLong(request.get("customerId").toString());
         long tripId = Long.parseLong(request.get("tripId").toString());
         int numberOfPeople = Integer.parseInt(request.get("numberOfPeople").toString());
 
-        Customer customer = customerRepository.findById(customerId).orElse(null);
-        Trip trip = tripRepository.findById(tripId).orElse(null);
-
-        if (customer == null || trip == null) {
+        try {
+            if (idempotencyKey == null) {
+                return bookingResult(bookingService.book(customerId, tripId, numberOfPeople));
+            }
+            // Retries with the same key replay the first successful response instead of booking again
+            IdempotencyStore.Outcome<Map<String, Object>> outcome = idempotencyStore.execute(
+                    idempotencyKey, customerId + ":" + tripId + ":" + numberOfPeople,
+                    () -> bookingResult(bookingService.book(customerId, tripId, numberOfPeople)));
+            if (outcome.replayed()) response.setHeader("Idempotent-Replayed", "true");
+            return outcome.value();
+        } catch (IllegalArgumentException | IllegalStateException e) {
             Map<String, Object> error = new HashMap<>();
-            error.put("error", "Customer or Trip not found");
+            error.put("error", e.getMessage());
             return error;
         }
+    }
 
-        if (numberOfPeople < 1) {
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", "Number of people must be at least 1");
-            return error;
+    @PostMapping("/batch")
+    public Map<String, Object> createReservations(@RequestBody List<Map<String, Object>> request) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (request.isEmpty() || request.size() > maxBatchSize) {
+            result.put("error", "A batch must contain 1-" + maxBatchSize + " reservations");
+            return result;
         }
 
-        if (!trip.hasEnoughSpots(numberOfPeople)) {
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", "Not enough spots available");
-            return error;
+        // Malformed items are rejected on their own; the rest go to the service as one group
+        List<Map<String, Object>> items = new ArrayList<>(Collections.nCopies(request.size(), null));
+        List<Integer> positions = new ArrayList<>();
+        List<BookingService.BatchItem> batch = new ArrayList<>();
+        for (int i = 0; i < request.size(); i++) {
+            Map<String, Object> item = request.get(i);
+            try {
+                batch.add(new BookingService.BatchItem(
+                        Long.parseLong(item.get("customerId").toString()),
+                        Long.parseLong(item.get("tripId").toString()),
+                        Integer.parseInt(item.get("numberOfPeople").toString())));
+                positions.add(i);
+            } catch (RuntimeException e) {
+                items.set(i, Map.of("error", "customerId, tripId and numberOfPeople are required numbers"));
+            }
+        }
+
+        List<BookingService.BatchResult> booked;
+        try {
+            booked = batch.isEmpty() ? List.of() : bookingService.bookBatch(batch);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            result.put("error", e.getMessage());
+            return result;
+        }
+        int successful = 0;
+        for (int i = 0; i < booked.size(); i++) {
+            BookingService.BatchResult outcome = booked.get(i);
+            if (outcome.reservation() != null) {
+                items.set(positions.get(i), bookingResult(outcome.reservation()));
+                successful++;
+            } else {
+                items.set(positions.get(i), Map.of("error", outcome.error()));
+            }
         }
 
-        Reservation reservation = new Reservation(customer, trip, numberOfPeople);
-        reservationRepository.save(reservation);
+        result.put("booked", successful);
+        result.put("rejected", request.size() - successful);
+        result.put("results", items);
+        return result;
+    }
 
+    private static Map<String, Object> bookingResult(Reservation reservation) {
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("success", true);
         result.put("reservationNumber", reservation.getReservationNumber());
         result.put("totalPrice", reservation.getTotalPrice());
         result.put("status", reservation.getStatus().name());
-        return result;
+        return Collections.unmodifiableMap(result);
     }
 
     @GetMapping
-    @Transactional
-    public List<ReservationDto> getAllReservations() {
-        return reservationRepository.findAll().stream()
-                .sorted(Comparator.comparing(Reservation::getReservationId,
-                        Comparator.nullsLast(Long::compareTo)).reversed()) // latest first
-                .map(ReservationMapper::toDto)
-                .toList();
+    public List<ReservationDto> getAllReservations(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = KeysetPage.DEFAULT_LIMIT) int limit) {
+        return reservationRepository.findPage(KeysetPage.after(after), KeysetPage.limit(limit));
+    }
+
+    // Every reservation oldest first, streamed as it is read: ?format=ndjson (default) or csv, and
+    // ?after=<reservationId> to resume an interrupted export
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReservations(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long after) {
+        ReservationExportService.Format exportFormat;
+        try {
+            exportFormat = ReservationExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> out.write("{\"error\":\"format must be ndjson or csv\"}".getBytes(StandardCharsets.UTF_8)));
+        }
+        long from = after != null ? after : 0;
+        StreamingResponseBody body = out -> reservationExportService.export(exportFormat, from, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat == ReservationExportService.Format.CSV
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reservations."
+                        + exportFormat.name().toLowerCase(Locale.ROOT) + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/lifecycle/stats")
+    public Map<String, Object> getLifecycleStats() {
+        ReservationLifecycleRun lastRun = reservationLifecycleJob.lastRun();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("lastRun", lastRun);
+        return result;
+    }
+
+    @PostMapping("/lifecycle/run")
+    public ReservationLifecycleRun runLifecycle() {
+        return reservationLifecycleJob.run();
     }
 
     @PostMapping("/{id}/cancel")
-    @Transactional
     public Map<String, Object> cancelReservation(@PathVariable String id) {
         Map<String, Object> result = new HashMap<>();
-        
-        Reservation reservation = reservationRepository.findByReservationNumber(id).orElse(null);
-
-        if (reservation == null) {
-            result.put("error", "Reservation not found");
-            return result;
-        }
 
         try {
-            reservation.cancel();
-            reservationRepository.save(reservation);
+            Reservation reservation = bookingService.cancel(id);
             result.put("success", true);
             result.put("status", reservation.getStatus().name());
-        } catch (IllegalStateException e) {
+        } catch (IllegalArgumentException | IllegalStateException e) {
             result.put("error", e.getMessage());
         }
 
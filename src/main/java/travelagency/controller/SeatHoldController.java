@@ -0,0 +1,78 @@
+package travelagency.controller;
+
+import org.springframework.web.bind.annotation.*;
+import travelagency.model.Reservation;
+import travelagency.service.SeatHold;
+import travelagency.service.SeatHoldService;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/holds")
+@CrossOrigin(origins = "*")
+public class SeatHoldController {
+
+    private final SeatHoldService seatHoldService;
+
+    public SeatHoldController(SeatHoldService seatHoldService) {
+        this.seatHoldService = seatHoldService;
+    }
+
+    @PostMapping
+    public Map<String, Object> createHold(@RequestBody Map<String, Object> request) {
+        long tripId = Long.parseLong(request.get("tripId").toString());
+        int seats = Integer.parseInt(request.get("seats").toString());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        try {
+            SeatHold hold = seatHoldService.hold(tripId, seats);
+            result.put("success", true);
+            result.put("holdId", hold.holdId());
+            result.put("tripId", hold.tripId());
+            result.put("seats", hold.seats());
+            result.put("expiresAt", hold.expiresAt());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            result.put("error", e.getMessage());
+        }
+        return result;
+    }
+
+    @PostMapping("/{holdId}/reservation")
+    public Map<String, Object> convertHold(@PathVariable String holdId,
+                                           @RequestBody Map<String, Object> request) {
+        long customerId = Long.parseLong(request.get("customerId").toString());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        try {
+            Reservation reservation = seatHoldService.convert(holdId, customerId);
+            result.put("success", true);
+            result.put("reservationNumber", reservation.getReservationNumber());
+            result.put("totalPrice", reservation.getTotalPrice());
+            result.put("status", reservation.getStatus().name());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            result.put("error", e.getMessage());
+        }
+        return result;
+    }
+
+    @DeleteMapping("/{holdId}")
+    public Map<String, Object> releaseHold(@PathVariable String holdId) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            seatHoldService.release(holdId);
+            result.put("success", true);
+        } catch (IllegalStateException e) {
+            result.put("error", e.getMessage());
+        }
+        return result;
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> getHoldStats() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("activeHolds", seatHoldService.activeHolds());
+        return result;
+    }
+}
@@ -1,13 +1,26 @@
 package travelagency.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.transaction.annotation.Transactional;
+import travelagency.catalog.CatalogCacheStats;
+import travelagency.catalog.TripCatalogCache;
+import travelagency.catalog.TripSearchCriteria;
+import travelagency.catalog.TripSearchIndex;
+import travelagency.catalog.TripTextIndex;
 import travelagency.dto.TripDto;
+import travelagency.dto.TripImportReportDto;
 import travelagency.dto.TripReservationDto;
-import travelagency.mapper.TripMapper;
-import travelagency.model.Reservation;
-import travelagency.repository.TripRepository;
+import travelagency.dto.TripSearchHitDto;
+import travelagency.dto.TripSearchPageDto;
+import travelagency.model.enums.DifficultyLevel;
+import travelagency.repository.ReservationRepository;
+import travelagency.service.TripImportService;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.*;
 
 @RestController
@@ -15,36 +28,104 @@ import java.util.*;
 @CrossOrigin(origins = "*")
 public class TripController {
 
-    private final TripRepository tripRepository;
+    private final TripCatalogCache tripCatalogCache;
+    private final TripSearchIndex tripSearchIndex;
+    private final TripTextIndex tripTextIndex;
+    private final ReservationRepository reservationRepository;
+    private final TripImportService tripImportService;
 
-    public TripController(TripRepository tripRepository) {
-        this.tripRepository = tripRepository;
+    public TripController(TripCatalogCache tripCatalogCache,
+                          TripSearchIndex tripSearchIndex,
+                          TripTextIndex tripTextIndex,
+                          ReservationRepository reservationRepository,
+                          TripImportService tripImportService) {
+        this.tripCatalogCache = tripCatalogCache;
+        this.tripSearchIndex = tripSearchIndex;
+        this.tripTextIndex = tripTextIndex;
+        this.reservationRepository = reservationRepository;
+        this.tripImportService = tripImportService;
     }
 
     @GetMapping
     public List<TripDto> getAllTrips() {
-        return tripRepository.findAll().stream()
-                .map(TripMapper::toDto)
-                .toList();
+        return tripCatalogCache.getAll();
     }
 
     @GetMapping("/{id}")
     public TripDto getTripById(@PathVariable long id) {
-        return tripRepository.findById(id)
-                .map(TripMapper::toDto)
-                .orElse(null);
+        return tripCatalogCache.get(id).orElse(null);
+    }
+
+    @GetMapping("/search")
+    public List<TripDto> searchTrips(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String destination,
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate departureFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate departureTo,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Integer minAvailableSpots,
+            @RequestParam(required = false) DifficultyLevel difficultyLevel,
+            @RequestParam(required = false) Boolean allInclusive,
+            @RequestParam(defaultValue = KeysetPage.DEFAULT_LIMIT) int limit) {
+        TripSearchCriteria criteria = new TripSearchCriteria(type, destination, country,
+                departureFrom, departureTo, minPrice, maxPrice, minAvailableSpots, difficultyLevel, allInclusive);
+        return tripSearchIndex.search(criteria, KeysetPage.size(limit));
+    }
+
+    @GetMapping("/text-search")
+    public TripSearchPageDto textSearchTrips(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        int pageSize = KeysetPage.size(size);
+        int pageNumber = Math.max(0, page);
+        List<TripTextIndex.Hit> hits = tripTextIndex.search(q);
+        List<TripTextIndex.Hit> pageHits = hits.stream()
+                .skip((long) pageNumber * pageSize)
+                .limit(pageSize)
+                .toList();
+        Map<Long, TripDto> trips = new HashMap<>();
+        tripCatalogCache.getAll(pageHits.stream().map(TripTextIndex.Hit::tripId).toList())
+                .forEach(trip -> trips.put(trip.id(), trip));
+        List<TripSearchHitDto> results = pageHits.stream()
+                .filter(hit -> trips.containsKey(hit.tripId()))
+                .map(hit -> new TripSearchHitDto(trips.get(hit.tripId()), hit.score()))
+                .toList();
+        return new TripSearchPageDto(q, pageNumber, pageSize, hits.size(), results);
+    }
+
+    // Bulk catalog import, read from the body as it arrives: CSV (text/csv) or JSON objects, as an array
+    // or one per line (application/json, application/x-ndjson); ?format=csv|json overrides the content type
+    @PostMapping("/import")
+    public ResponseEntity<?> importTrips(HttpServletRequest request,
+                                         @RequestParam(required = false) String format) throws IOException {
+        String declared = format != null ? format : String.valueOf(request.getContentType());
+        TripImportService.Format importFormat;
+        if (declared.toLowerCase(Locale.ROOT).contains("csv")) {
+            importFormat = TripImportService.Format.CSV;
+        } else if (declared.toLowerCase(Locale.ROOT).contains("json")) {
+            importFormat = TripImportService.Format.JSON;
+        } else {
+            return ResponseEntity.badRequest().body(Map.of("error", "Send CSV (text/csv) or JSON (application/json)"));
+        }
+        TripImportReportDto report = tripImportService.importTrips(importFormat, request.getInputStream());
+        return report.error() != null && report.imported() == 0
+                ? ResponseEntity.badRequest().body(report) : ResponseEntity.ok(report);
+    }
+
+    @GetMapping("/cache/stats")
+    public CatalogCacheStats getCatalogCacheStats() {
+        return tripCatalogCache.stats();
     }
 
-    @Transactional
     @GetMapping("/{id}/reservations")
-    public List<TripReservationDto> getTripReservations(@PathVariable long id) {
-        return tripRepository.findById(id)
-                .map(trip -> trip.getReservations().stream()
-                        .sorted(Comparator.comparing(Reservation::getReservationId,
-                                Comparator.nullsLast(Long::compareTo)).reversed()) // latest first
-                        .map(TripMapper::toReservationDto)
-                        .toList())
-                .orElse(Collections.emptyList());
+    public List<TripReservationDto> getTripReservations(
+            @PathVariable long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = KeysetPage.DEFAULT_LIMIT) int limit) {
+        return reservationRepository.findTripPage(id, KeysetPage.after(after), KeysetPage.limit(limit));
     }
 }
 
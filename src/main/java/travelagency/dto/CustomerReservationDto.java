@@ -5,6 +5,7 @@ import java.time.LocalDate;
 
 public record CustomerReservationDto(
         String id,
+        Long reservationId,
         int numberOfPeople,
         String status,
         LocalDate bookingDate,
@@ -0,0 +1,9 @@
+package travelagency.dto;
+
+public record OccupancyRollupDto(
+        String key,
+        int trips,
+        long capacity,
+        long seatsBooked,
+        double occupancyPercent
+) {}
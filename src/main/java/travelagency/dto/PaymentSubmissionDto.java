@@ -0,0 +1,12 @@
+package travelagency.dto;
+
+import java.time.Instant;
+
+public record PaymentSubmissionDto(
+        String submissionId,
+        String reservationNumber,
+        String status,
+        String message,
+        Instant submittedAt,
+        Instant processedAt
+) {}
@@ -0,0 +1,11 @@
+package travelagency.dto;
+
+import java.math.BigDecimal;
+
+public record RevenueRollupDto(
+        String key,
+        long reservations,
+        long seats,
+        BigDecimal pendingRevenue,
+        BigDecimal confirmedRevenue
+) {}
@@ -0,0 +1,17 @@
+package travelagency.dto;
+
+import java.util.List;
+
+public record TripImportReportDto(
+        long rowsRead,
+        long imported,
+        long rejected,
+        int destinationsCreated,
+        long durationMillis,
+        long tripsPerSecond,
+        String error,
+        List<RowError> errors,
+        boolean errorsTruncated
+) {
+    public record RowError(long row, String tripCode, String message) {}
+}
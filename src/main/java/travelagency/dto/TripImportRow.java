@@ -0,0 +1,36 @@
+package travelagency.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One trip of a catalog import (POST /api/trips/import); the field names are also the CSV header names.
+ * Subtype fields apply to their type only; the flight fields are optional as a group.
+ */
+public record TripImportRow(
+        String type,
+        String tripCode,
+        String name,
+        String description,
+        String destination,
+        String country,
+        String climate,
+        LocalDate departureDate,
+        LocalDate returnDate,
+        BigDecimal basePrice,
+        Integer maxParticipants,
+        String difficultyLevel,
+        Boolean equipmentIncluded,
+        Boolean guidedTours,
+        List<String> historicalSites,
+        String resortName,
+        Boolean allInclusive,
+        String flightNumber,
+        String airline,
+        String departureAirport,
+        String arrivalAirport,
+        LocalDateTime departureTime,
+        LocalDateTime arrivalTime
+) {}
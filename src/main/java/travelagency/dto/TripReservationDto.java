@@ -5,6 +5,7 @@ import java.time.LocalDate;
 
 public record TripReservationDto(
         String id,
+        Long reservationId,
         String customerName,
         int numberOfPeople,
         String status,
@@ -0,0 +1,6 @@
+package travelagency.dto;
+
+public record TripSearchHitDto(
+        TripDto trip,
+        double score
+) {}
@@ -0,0 +1,11 @@
+package travelagency.dto;
+
+import java.util.List;
+
+public record TripSearchPageDto(
+        String query,
+        int page,
+        int size,
+        long totalHits,
+        List<TripSearchHitDto> hits
+) {}
@@ -22,6 +22,7 @@ public final class CustomerMapper {
         Trip t = r.getTrip();
         return new CustomerReservationDto(
                 r.getReservationNumber(),
+                r.getReservationId(),
                 r.getNumberOfPeople(),
                 r.getStatus().name(),
                 r.getBookingDate(),
@@ -30,7 +30,7 @@ public final class TripMapper {
             equipmentIncluded = at.isEquipmentIncluded();
         } else if (t instanceof CulturalTrip ct) {
             guidedTours = ct.isGuidedTours();
-            historicalSites = ct.getHistoricalSites();
+            historicalSites = List.copyOf(ct.getHistoricalSites());
         } else if (t instanceof VacationTrip vt) {
             resortName = vt.getResortName();
             allInclusive = vt.isAllInclusive();
@@ -61,10 +61,37 @@ public final class TripMapper {
         );
     }
 
+    public static TripDto withAvailableSpots(TripDto t, int availableSpots) {
+        return new TripDto(
+                t.id(),
+                t.tripCode(),
+                t.name(),
+                t.type(),
+                t.description(),
+                t.destination(),
+                t.country(),
+                t.climate(),
+                t.departureDate(),
+                t.returnDate(),
+                t.duration(),
+                t.basePrice(),
+                t.finalPrice(),
+                t.maxParticipants(),
+                availableSpots,
+                t.difficultyLevel(),
+                t.equipmentIncluded(),
+                t.guidedTours(),
+                t.historicalSites(),
+                t.resortName(),
+                t.allInclusive()
+        );
+    }
+
     public static TripReservationDto toReservationDto(Reservation r) {
         String customerName = r.getCustomer() != null ? r.getCustomer().getFullName() : "Unknown";
         return new TripReservationDto(
                 r.getReservationNumber(),
+                r.getReservationId(),
                 customerName,
                 r.getNumberOfPeople(),
                 r.getStatus().name(),
@@ -0,0 +1,37 @@
+package travelagency.metrics;
+
+import org.hibernate.Interceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares and the entities it loads for the current request.
+ * Native and JPQL repository queries go through Hibernate too, so this covers every statement an
+ * API request issues; the plain-JDBC batch jobs run outside requests and are not counted.
+ */
+@Component
+public class HibernateRequestCounters implements StatementInspector, Interceptor, HibernatePropertiesCustomizer {
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+        hibernateProperties.put(AvailableSettings.INTERCEPTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        RequestMetrics.statementPrepared(sql);
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        RequestMetrics.entityLoaded();
+        return false;
+    }
+}
@@ -0,0 +1,30 @@
+package travelagency.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Charges the time spent in Spring Data repository methods to the current request. Registered as a
+ * repository invocation listener on every repository factory, the same hook actuator uses for its
+ * spring.data.repository.invocations timers (which give the per-method totals).
+ */
+@Component
+public class RepositoryTimings implements BeanPostProcessor, RepositoryMethodInvocationListener {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(this));
+        }
+        return bean;
+    }
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        RequestMetrics.repositoryCall(invocation.getDuration(TimeUnit.NANOSECONDS));
+    }
+}
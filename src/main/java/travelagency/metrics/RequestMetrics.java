@@ -0,0 +1,111 @@
+package travelagency.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Where one API request spent its time: repository calls, entity-to-DTO mapping and JSON
+ * serialization, plus the SQL statements and entities Hibernate handled on its behalf.
+ *
+ * ServerTimingFilter opens one per request on the request thread; the collectors below add to it
+ * through a thread-local and do nothing when no request is open (scheduled jobs, startup, payment
+ * workers). Lazy loads triggered while mapping count towards mapping time, not repository time.
+ */
+public final class RequestMetrics {
+
+    private static final ThreadLocal<RequestMetrics> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private int statements;
+    private int entitiesLoaded;
+    private long repositoryNanos;
+    private long mappingNanos;
+    private long serializationNanos;
+    // Nesting depth of mapping(), so mappers calling mappers are only timed once
+    private int mappingDepth;
+    // How often each distinct select was prepared; the same select over and over is the N+1 pattern
+    private final Map<String, Integer> selects = new HashMap<>();
+
+    private RequestMetrics() {}
+
+    static RequestMetrics begin() {
+        RequestMetrics metrics = new RequestMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static void statementPrepared(String sql) {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics == null) return;
+        metrics.statements++;
+        // Batched inserts and updates legitimately repeat one statement; only reads count as N+1
+        if (sql.regionMatches(true, 0, "select", 0, 6)) metrics.selects.merge(sql, 1, Integer::sum);
+    }
+
+    static void entityLoaded() {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics != null) metrics.entitiesLoaded++;
+    }
+
+    static void repositoryCall(long nanos) {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics != null) metrics.repositoryNanos += nanos;
+    }
+
+    static void serialization(long nanos) {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics != null) metrics.serializationNanos += nanos;
+    }
+
+    /** Runs an entity-to-DTO mapping, charging its time to the current request. */
+    public static <T> T mapping(Supplier<T> mapping) {
+        RequestMetrics metrics = CURRENT.get();
+        if (metrics == null || metrics.mappingDepth > 0) return mapping.get();
+        metrics.mappingDepth++;
+        long start = System.nanoTime();
+        try {
+            return mapping.get();
+        } finally {
+            metrics.mappingNanos += System.nanoTime() - start;
+            metrics.mappingDepth--;
+        }
+    }
+
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    int statements() {
+        return statements;
+    }
+
+    /** Selects prepared at least threshold times in this request, with their counts. */
+    Map<String, Integer> repeatedSelects(int threshold) {
+        Map<String, Integer> repeated = new HashMap<>();
+        selects.forEach((sql, count) -> {
+            if (count >= threshold) repeated.put(sql, count);
+        });
+        return repeated;
+    }
+
+    int entitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    long repositoryNanos() {
+        return repositoryNanos;
+    }
+
+    long mappingNanos() {
+        return mappingNanos;
+    }
+
+    long serializationNanos() {
+        return serializationNanos;
+    }
+}
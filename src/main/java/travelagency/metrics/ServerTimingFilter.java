@@ -0,0 +1,146 @@
+package travelagency.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Per-request breakdown for /api calls: a Server-Timing header splitting the request into db
+ * (repository calls), mapping, serialization and the remaining app time, and per-endpoint meters
+ * for the same figures plus SQL statements and entities loaded. Overall request latency per
+ * endpoint is actuator's http.server.requests timer. Each request is also held to its StatementBudget.
+ *
+ * The header has to follow the body, so responses are buffered until the handler returns. Paths
+ * under metrics.server-timing.excluded-paths (streaming endpoints) are passed through untouched.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final StatementBudget statementBudget;
+    private final boolean headerEnabled;
+    private final String[] excludedPaths;
+
+    public ServerTimingFilter(MeterRegistry meterRegistry,
+                              ObjectMapper objectMapper,
+                              StatementBudget statementBudget,
+                              @Value("${metrics.server-timing.enabled:true}") boolean headerEnabled,
+                              @Value("${metrics.server-timing.excluded-paths:}") String[] excludedPaths) {
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.statementBudget = statementBudget;
+        this.headerEnabled = headerEnabled;
+        this.excludedPaths = excludedPaths;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (!path.startsWith("/api/")) return true;
+        for (String excluded : excludedPaths) {
+            if (!excluded.isBlank() && path.startsWith(excluded.trim())) return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        RequestMetrics metrics = RequestMetrics.begin();
+        try {
+            chain.doFilter(request, buffered);
+        } finally {
+            RequestMetrics.end();
+            long total = metrics.elapsedNanos();
+            String endpoint = request.getMethod() + " " + endpointPattern(request);
+            if (statementBudget.enabled()) enforceBudget(endpoint, request, buffered, metrics);
+            if (headerEnabled && !buffered.isCommitted()) {
+                buffered.setHeader("Server-Timing", serverTiming(metrics, total));
+            }
+            buffered.copyBodyToResponse();
+            record(request, metrics);
+        }
+    }
+
+    private void enforceBudget(String endpoint, HttpServletRequest request, ContentCachingResponseWrapper response,
+                               RequestMetrics metrics) throws IOException {
+        List<StatementBudget.Violation> violations = statementBudget.check(endpoint, metrics);
+        if (violations.isEmpty()) return;
+        if (statementBudget.logs()) {
+            for (StatementBudget.Violation violation : violations) {
+                System.out.println("SQL budget exceeded by " + endpoint + " (" + request.getRequestURI() + "): "
+                        + violation.detail());
+            }
+        }
+        if (statementBudget.countsMetric()) {
+            for (StatementBudget.Violation violation : violations) {
+                meterRegistry.counter("api.request.sql.violations", "method", request.getMethod(),
+                        "uri", endpointPattern(request), "kind", violation.kind()).increment();
+            }
+        }
+        if (statementBudget.fails() && !response.isCommitted()) {
+            // The handler's work is done and committed; the caller just no longer gets to see it succeed
+            response.resetBuffer();
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            response.setContentType("application/json");
+            String message = "SQL budget exceeded: " + violations.stream()
+                    .map(StatementBudget.Violation::detail).collect(Collectors.joining("; "));
+            response.getWriter().write(objectMapper.writeValueAsString(Map.of("error", message)));
+            response.getWriter().flush();
+        }
+    }
+
+    private static String endpointPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    private static String serverTiming(RequestMetrics metrics, long totalNanos) {
+        long app = Math.max(0, totalNanos - metrics.repositoryNanos() - metrics.mappingNanos()
+                - metrics.serializationNanos());
+        return "db;dur=" + millis(metrics.repositoryNanos())
+                + ";desc=\"" + metrics.statements() + " statements, " + metrics.entitiesLoaded() + " entities\""
+                + ", mapping;dur=" + millis(metrics.mappingNanos())
+                + ", serialization;dur=" + millis(metrics.serializationNanos())
+                + ", app;dur=" + millis(app)
+                + ", total;dur=" + millis(totalNanos);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1e6);
+    }
+
+    private void record(HttpServletRequest request, RequestMetrics metrics) {
+        Tags tags = Tags.of("method", request.getMethod(), "uri", endpointPattern(request));
+        Timer.builder("api.request.db").description("Time in repository calls per request")
+                .tags(tags).register(meterRegistry).record(metrics.repositoryNanos(), TimeUnit.NANOSECONDS);
+        Timer.builder("api.request.mapping").description("Entity-to-DTO mapping time per request")
+                .tags(tags).register(meterRegistry).record(metrics.mappingNanos(), TimeUnit.NANOSECONDS);
+        Timer.builder("api.request.serialization").description("JSON serialization time per request")
+                .tags(tags).register(meterRegistry).record(metrics.serializationNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("api.request.statements").description("SQL statements per request")
+                .tags(tags).register(meterRegistry).record(metrics.statements());
+        DistributionSummary.builder("api.request.entities").description("Entities loaded per request")
+                .tags(tags).register(meterRegistry).record(metrics.entitiesLoaded());
+    }
+}
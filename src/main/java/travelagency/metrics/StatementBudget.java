@@ -0,0 +1,104 @@
+package travelagency.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * SQL budget of an API request. Each endpoint ("METHOD /pattern") may prepare at most its
+ * configured number of statements and load at most its number of entities (metrics.sql-budget.endpoints
+ * entries "METHOD /pattern=statements" or "=statements/entities", -1 for no limit; the defaults apply
+ * elsewhere), and no select may be prepared repeat-threshold times or more within one request: that is
+ * a lazy association walked row by row (N+1), whatever the totals say.
+ *
+ * What happens on a violation is up to metrics.sql-budget.actions, any of log, metric and fail;
+ * fail replaces the response with a 500 and is meant for test and staging runs. Budgets in
+ * metrics.sql-budget.endpoints pin today's statement counts, so a regression shows up as a violation.
+ */
+@Component
+public class StatementBudget {
+
+    private static final int UNLIMITED = -1;
+
+    private final Set<String> actions;
+    private final int defaultStatements;
+    private final int defaultEntities;
+    private final int repeatThreshold;
+    private final Map<String, Budget> endpointBudgets = new HashMap<>();
+
+    public StatementBudget(@Value("${metrics.sql-budget.actions:log,metric}") String[] actions,
+                           @Value("${metrics.sql-budget.default-statements:10}") int defaultStatements,
+                           @Value("${metrics.sql-budget.default-entities:1000}") int defaultEntities,
+                           @Value("${metrics.sql-budget.repeat-threshold:3}") int repeatThreshold,
+                           @Value("${metrics.sql-budget.endpoints:}") String[] endpoints) {
+        this.actions = Stream.of(actions).map(String::trim).filter(a -> !a.isEmpty()).collect(Collectors.toSet());
+        for (String action : this.actions) {
+            if (!Set.of("log", "metric", "fail").contains(action)) {
+                throw new IllegalArgumentException("Unknown metrics.sql-budget action " + action);
+            }
+        }
+        this.defaultStatements = defaultStatements;
+        this.defaultEntities = defaultEntities;
+        this.repeatThreshold = repeatThreshold;
+        for (String entry : endpoints) {
+            if (entry.isBlank()) continue;
+            int separator = entry.lastIndexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException(
+                        "metrics.sql-budget.endpoints entry needs METHOD /path=statements[/entities]: " + entry);
+            }
+            String[] limits = entry.substring(separator + 1).split("/");
+            endpointBudgets.put(entry.substring(0, separator).trim(), new Budget(
+                    Integer.parseInt(limits[0].trim()),
+                    limits.length > 1 ? Integer.parseInt(limits[1].trim()) : defaultEntities));
+        }
+    }
+
+    boolean enabled() {
+        return !actions.isEmpty();
+    }
+
+    boolean logs() {
+        return actions.contains("log");
+    }
+
+    boolean countsMetric() {
+        return actions.contains("metric");
+    }
+
+    boolean fails() {
+        return actions.contains("fail");
+    }
+
+    /** Everything the request did over budget; empty when it stayed within. */
+    List<Violation> check(String endpoint, RequestMetrics metrics) {
+        List<Violation> violations = new ArrayList<>();
+        Budget budget = endpointBudgets.getOrDefault(endpoint, new Budget(defaultStatements, defaultEntities));
+        if (budget.statements() != UNLIMITED && metrics.statements() > budget.statements()) {
+            violations.add(new Violation("statements",
+                    metrics.statements() + " statements, budget " + budget.statements()));
+        }
+        if (budget.entities() != UNLIMITED && metrics.entitiesLoaded() > budget.entities()) {
+            violations.add(new Violation("entities",
+                    metrics.entitiesLoaded() + " entities loaded, budget " + budget.entities()));
+        }
+        metrics.repeatedSelects(repeatThreshold).forEach((sql, count) ->
+                violations.add(new Violation("n+1", "same select prepared " + count + " times: " + abbreviate(sql))));
+        return violations;
+    }
+
+    private static String abbreviate(String sql) {
+        return sql.length() <= 200 ? sql : sql.substring(0, 200) + "...";
+    }
+
+    private record Budget(int statements, int entities) {}
+
+    record Violation(String kind, String detail) {}
+}
@@ -0,0 +1,32 @@
+package travelagency.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Boot's JSON message converter with the time spent writing response bodies charged to the current
+ * request. Being a MappingJackson2HttpMessageConverter bean, it replaces the auto-configured one and
+ * keeps the application's ObjectMapper settings.
+ */
+@Component
+public class TimedJacksonConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimedJacksonConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            RequestMetrics.serialization(System.nanoTime() - start);
+        }
+    }
+}
@@ -7,13 +7,12 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "adventure_trips")
 @DiscriminatorValue("Adventure")
 @Getter @Setter @NoArgsConstructor
 @ToString(callSuper = true)
 public class AdventureTrip extends Trip {
 
-    private static final BigDecimal PRICE_MULTIPLIER = new BigDecimal("1.30");
+    public static final BigDecimal PRICE_MULTIPLIER = new BigDecimal("1.30");
     @Enumerated(EnumType.STRING)
     private DifficultyLevel difficultyLevel;
     private boolean equipmentIncluded;
@@ -2,24 +2,29 @@ package travelagency.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "cultural_trips")
 @DiscriminatorValue("Cultural")
 @Getter @Setter @NoArgsConstructor
 @ToString(callSuper = true)
 public class CulturalTrip extends Trip {
 
-    private static final BigDecimal PRICE_MULTIPLIER = new BigDecimal("1.10");
+    public static final BigDecimal PRICE_MULTIPLIER = new BigDecimal("1.10");
     private boolean guidedTours;
     // Ordered multi-valued attribute: maintains insertion order
     @ElementCollection
     @CollectionTable(name = "cultural_trip_sites", joinColumns = @JoinColumn(name = "trip_id"))
     @OrderColumn(name = "site_order")
+    @Fetch(FetchMode.SUBSELECT) // catalog listings initialize sites of all loaded trips in one query
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "trip-sites")
     private List<String> historicalSites = new ArrayList<>();
 
     public CulturalTrip(String code, String name, String desc, Destination dest,
@@ -2,6 +2,7 @@ package travelagency.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.Hibernate;
 import travelagency.model.enums.ReservationStatus;
 import travelagency.model.enums.UserRole;
 import java.time.LocalDate;
@@ -66,9 +67,10 @@ public class Customer extends User {
 
     // ===== Association: Customer <-> Reservation =====
     public void addReservation(Reservation r) {
-        if (!reservations.contains(r)) {
-            reservations.add(r);
-            if (r.getCustomer() != this) r.setCustomer(this);
+        if (r.getCustomer() != this) {
+            r.setCustomer(this); // calls back here once the owning side points at this customer
+        } else if (!Hibernate.isInitialized(reservations) || !reservations.contains(r)) {
+            reservations.add(r); // queued on an uninitialized lazy bag, nothing is loaded
         }
     }
 
@@ -2,18 +2,22 @@ package travelagency.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "destinations")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "destinations")
 @Getter @Setter @NoArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @ToString(exclude = "trips")
 public class Destination {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "destination_seq")
+    @SequenceGenerator(name = "destination_seq", sequenceName = "destinations_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long destinationId;
     private String name;
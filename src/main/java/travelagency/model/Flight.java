@@ -2,18 +2,22 @@ package travelagency.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.Duration;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "flights")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "flights")
 @Getter @Setter @NoArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @ToString(exclude = "trip")
 public class Flight {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "flight_seq")
+    @SequenceGenerator(name = "flight_seq", sequenceName = "flights_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long flightId;
     private String flightNumber;
@@ -23,7 +23,8 @@ import java.time.LocalDate;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_seq")
+    @SequenceGenerator(name = "payment_seq", sequenceName = "payments_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     private Long paymentId;
     private BigDecimal amount;
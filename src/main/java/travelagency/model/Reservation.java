@@ -5,27 +5,29 @@ import lombok.*;
 import travelagency.model.enums.ReservationStatus;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
-import java.util.concurrent.ThreadLocalRandom;
 
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+        // Keyset pagination: newest-first listings per trip and per customer
+        @Index(name = "idx_reservations_trip_page", columnList = "trip_id, reservation_id"),
+        @Index(name = "idx_reservations_customer_page", columnList = "customer_id, reservation_id")
+})
 @Getter @NoArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @ToString(exclude = {"customer", "trip", "payment"})
 public class Reservation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_seq")
+    @SequenceGenerator(name = "reservation_seq", sequenceName = "reservations_seq", allocationSize = 50)
     @Setter private Long reservationId;
     @EqualsAndHashCode.Include
     @Column(unique = true, nullable = false)
     private String reservationNumber;
     private LocalDate bookingDate;
     @Enumerated(EnumType.STRING)
-    @Setter private ReservationStatus status;
+    private ReservationStatus status;
     private int numberOfPeople;
     @ManyToOne
     @JoinColumn(name = "customer_id", nullable = false)
@@ -37,7 +39,7 @@ public class Reservation {
     private Payment payment;
 
     public Reservation(Customer customer, Trip trip, int numberOfPeople) {
-        this.reservationNumber = generateNumber();
+        this.reservationNumber = ReservationNumbers.next();
         this.bookingDate = LocalDate.now();
         this.status = ReservationStatus.PENDING;
         setNumberOfPeople(numberOfPeople);
@@ -49,9 +51,22 @@ public class Reservation {
         if (numberOfPeople < 1) {
             throw new IllegalArgumentException("Number of people must be at least 1");
         }
+        if (trip != null && occupiesSeats()) trip.adjustBookedSeats(numberOfPeople - this.numberOfPeople);
         this.numberOfPeople = numberOfPeople;
     }
 
+    public void setStatus(ReservationStatus status) {
+        boolean occupied = occupiesSeats();
+        this.status = status;
+        if (trip != null && occupied != occupiesSeats())
+            trip.adjustBookedSeats(occupied ? -numberOfPeople : numberOfPeople);
+    }
+
+    // Counted in Trip.bookedSeats while not cancelled
+    boolean occupiesSeats() {
+        return status != ReservationStatus.CANCELLED;
+    }
+
     // ===== Derived Attribute =====
     public BigDecimal getTotalPrice() {
         return trip == null ? BigDecimal.ZERO
@@ -72,7 +87,8 @@ public class Reservation {
     public void recordPayment(Payment payment) {
         if (status != ReservationStatus.PENDING)
             throw new IllegalStateException("Can only pay PENDING");
-        if (!payment.isValid() || !payment.getAmount().equals(getTotalPrice()))
+        // compareTo: 1540 and 1540.0000 are the same amount
+        if (!payment.isValid() || payment.getAmount().compareTo(getTotalPrice()) != 0)
             throw new IllegalArgumentException("Invalid payment");
         this.payment = payment;
         payment.setReservation(this);
@@ -82,6 +98,7 @@ public class Reservation {
     public void cancel() {
         if (status == ReservationStatus.COMPLETED || status == ReservationStatus.CANCELLED)
             throw new IllegalStateException("Cannot cancel");
+        if (trip != null) trip.adjustBookedSeats(-numberOfPeople);
         this.status = ReservationStatus.CANCELLED;
     }
 
@@ -114,7 +131,7 @@ public class Reservation {
     @PrePersist
     private void prePersist() {
         if (reservationNumber == null || reservationNumber.isBlank()) {
-            reservationNumber = generateNumber();
+            reservationNumber = ReservationNumbers.next();
         }
         if (bookingDate == null) {
             bookingDate = LocalDate.now();
@@ -123,10 +140,4 @@ public class Reservation {
             status = ReservationStatus.PENDING;
         }
     }
-
-    private static String generateNumber() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS"));
-        int randomSuffix = ThreadLocalRandom.current().nextInt(100, 1000);
-        return "RES-" + timestamp + "-" + randomSuffix;
-    }
 }
@@ -0,0 +1,70 @@
+package travelagency.model;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style reservation numbers: 41 bits of milliseconds since 2024-01-01, 10 bits of node id
+ * and 12 bits of per-millisecond sequence, printed in base 36 (e.g. "RES-3F9K2XQ1B7Z").
+ *
+ * Generation is a single CAS on one AtomicLong holding (millis, sequence). When the 4096 sequence
+ * values of a millisecond are used up the counter simply carries into the next millisecond, and a
+ * clock that steps backwards keeps counting from the last issued value, so numbers are strictly
+ * increasing within a process and never wait. Uniqueness across processes relies on distinct node
+ * ids, set with -Dreservations.node-id=0..1023 or RESERVATIONS_NODE_ID; without one a node id is
+ * derived from the host name and process id.
+ */
+public final class ReservationNumbers {
+
+    private static final long EPOCH = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+
+    private static final long NODE = nodeId();
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private ReservationNumbers() {}
+
+    private static final String PREFIX = "RES-";
+    private static final byte[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".getBytes(StandardCharsets.US_ASCII);
+
+    public static String next() {
+        // Encoded straight into one byte buffer (a positive long needs at most 13 base-36 digits)
+        long id = nextId();
+        byte[] buf = new byte[PREFIX.length() + 13];
+        int pos = buf.length;
+        do {
+            buf[--pos] = DIGITS[(int) (id % 36)];
+            id /= 36;
+        } while (id != 0);
+        for (int i = PREFIX.length() - 1; i >= 0; i--) buf[--pos] = (byte) PREFIX.charAt(i);
+        return new String(buf, pos, buf.length - pos, StandardCharsets.US_ASCII);
+    }
+
+    static long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH) << SEQUENCE_BITS;
+        long prev, next;
+        do {
+            prev = LAST.get();
+            next = Math.max(now, prev + 1);
+        } while (!LAST.compareAndSet(prev, next));
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (NODE << SEQUENCE_BITS) | sequence;
+    }
+
+    private static long nodeId() {
+        String configured = System.getProperty("reservations.node-id", System.getenv("RESERVATIONS_NODE_ID"));
+        if (configured != null && !configured.isBlank()) {
+            long node = Long.parseLong(configured.trim());
+            if (node < 0 || node > MAX_NODE) {
+                throw new IllegalArgumentException("reservations.node-id must be between 0 and " + MAX_NODE);
+            }
+            return node;
+        }
+        // RuntimeMXBean name is "pid@hostname"
+        return ManagementFactory.getRuntimeMXBean().getName().hashCode() & MAX_NODE;
+    }
+}
@@ -2,7 +2,9 @@ package travelagency.model;
 
 import jakarta.persistence.*;
 import lombok.*;
-import travelagency.model.enums.ReservationStatus;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
@@ -21,15 +23,33 @@ import java.util.List;
  */
 @Entity
 @Table(name = "trips")
-@Inheritance(strategy = InheritanceType.JOINED)
+// Catalog read paths: destination, the inverse one-to-one flight and the seat counters in the same SELECT as
+// the trip. The query cache keeps whole rows, so cached queries use Trip.cachedCatalog, which leaves the
+// counters out; they are then read by id.
+@NamedEntityGraph(name = "Trip.catalog", attributeNodes = {
+        @NamedAttributeNode("destination"),
+        @NamedAttributeNode("flight"),
+        @NamedAttributeNode("seats")
+})
+@NamedEntityGraph(name = "Trip.cachedCatalog", attributeNodes = {
+        @NamedAttributeNode("destination"),
+        @NamedAttributeNode("flight")
+})
+// One row per trip: subtype columns live in trips (nullable, unused by the other subtypes), so polymorphic
+// reads need no joins. The "trips-joined" profile maps the former JOINED layout (META-INF/trips-joined-orm.xml)
+// for comparison; existing JOINED databases are converted by persistence/TripSingleTableMigration.
+@Inheritance(strategy = InheritanceType.SINGLE_TABLE)
+// Second-level cached for the whole hierarchy; the seat counters are not part of it (TripSeats)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "trips")
 @DiscriminatorColumn(name = "trip_type")
 @Getter @Setter @NoArgsConstructor
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
-@ToString(exclude = {"destination", "reservations"})
+@ToString(exclude = {"destination", "reservations", "seats", "unsavedSeats"})
 public abstract class Trip {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trip_seq")
+    @SequenceGenerator(name = "trip_seq", sequenceName = "trips_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     protected Long tripId;
     @Column(unique = true)
@@ -40,6 +60,17 @@ public abstract class Trip {
     protected LocalDate returnDate;
     protected BigDecimal basePrice;
     protected int maxParticipants;
+    // booked_seats and held_seats of the same row, read past the second-level cache. Loaded lazily, in
+    // batches or through the Trip.catalog graph; null until a saved trip is read back, so a trip that only
+    // lives in memory counts its reservations in unsavedSeats instead.
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "trip_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    protected TripSeats seats;
+    @Transient
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private TripSeats unsavedSeats;
     @ManyToOne
     @JoinColumn(name = "destination_id")
     protected Destination destination;
@@ -81,11 +112,17 @@ public abstract class Trip {
         return departureDate.isAfter(checkDate) && getAvailableSpots() > 0;
     }
 
+    public int getBookedSeats() {
+        return seats().getBookedSeats();
+    }
+
+    public int getHeldSeats() {
+        return seats().getHeldSeats();
+    }
+
     public int getAvailableSpots() {
-        int booked = reservations.stream()
-                .filter(r -> r.getStatus() != ReservationStatus.CANCELLED)
-                .mapToInt(Reservation::getNumberOfPeople).sum();
-        return maxParticipants - booked;
+        TripSeats counters = seats();
+        return maxParticipants - counters.getBookedSeats() - counters.getHeldSeats();
     }
 
     public boolean hasEnoughSpots(int people) {
@@ -101,16 +138,34 @@ public abstract class Trip {
         }
     }
 
+    // Only Reservation moves seats in or out of the counter (create, cancel, resize). Counters not loaded yet
+    // are left alone: they are read after the seat statement and already include it.
+    void adjustBookedSeats(int delta) {
+        if (seats == null || Hibernate.isInitialized(seats)) seats().adjustBookedSeats(delta);
+    }
+
+    private TripSeats seats() {
+        if (seats != null) return seats;
+        if (unsavedSeats == null) unsavedSeats = new TripSeats();
+        return unsavedSeats;
+    }
+
     // ===== Association: Trip <-> Reservation =====
     public void addReservation(Reservation r) {
-        if (!reservations.contains(r)) {
+        if (r.getTrip() != this) {
+            r.setTrip(this); // calls back here once the owning side points at this trip
+        } else if (!Hibernate.isInitialized(reservations) || !reservations.contains(r)) {
+            // An uninitialized lazy bag queues the add instead of loading every reservation
             reservations.add(r);
-            if (r.getTrip() != this) r.setTrip(this);
+            if (r.occupiesSeats()) adjustBookedSeats(r.getNumberOfPeople());
         }
     }
 
     public void removeReservation(Reservation r) {
-        if (reservations.remove(r) && r.getTrip() == this) r.setTrip(null);
+        if (reservations.remove(r)) {
+            if (r.occupiesSeats()) adjustBookedSeats(-r.getNumberOfPeople());
+            if (r.getTrip() == this) r.setTrip(null);
+        }
     }
 
 }
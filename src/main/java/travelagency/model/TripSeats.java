@@ -0,0 +1,39 @@
+package travelagency.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Seat counters of a trip, mapped onto its trips row next to the Trip entity but outside the
+ * second-level cache. Trip rows are cached for half an hour while the counters move with every
+ * booking, hold and cancellation through TripRepository's native seat statements; keeping them here
+ * means every load reads them from the database, so a cached trip never carries stale availability.
+ *
+ * Hibernate never writes this entity: the row is inserted with the trip (the counters start at their
+ * column default, 0) and only the native statements change them; adjustBookedSeats mirrors a booking
+ * in the current session.
+ */
+@Entity
+@Immutable
+@Table(name = "trips")
+@Getter @NoArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+public class TripSeats {
+
+    @Id
+    @EqualsAndHashCode.Include
+    private Long tripId;
+    // Derived attribute kept in step with non-cancelled reservations, so availability never loads them
+    @ColumnDefault("0")
+    private int bookedSeats;
+    // Seats under temporary checkout holds (SeatHoldService), zeroed on startup
+    @ColumnDefault("0")
+    private int heldSeats;
+
+    void adjustBookedSeats(int delta) {
+        bookedSeats += delta;
+    }
+}
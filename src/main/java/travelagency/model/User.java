@@ -18,7 +18,8 @@ import travelagency.model.enums.UserRole;
 public abstract class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "users_seq", allocationSize = 50)
     @EqualsAndHashCode.Include
     protected Long userId;
 
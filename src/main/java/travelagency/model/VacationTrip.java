@@ -6,13 +6,12 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "vacation_trips")
 @DiscriminatorValue("Vacation")
 @Getter @Setter @NoArgsConstructor
 @ToString(callSuper = true)
 public class VacationTrip extends Trip {
 
-    private static final BigDecimal PRICE_MULTIPLIER = new BigDecimal("1.50");
+    public static final BigDecimal PRICE_MULTIPLIER = new BigDecimal("1.50");
     private String resortName;
     private boolean allInclusive;
 
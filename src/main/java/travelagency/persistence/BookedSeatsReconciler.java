@@ -0,0 +1,62 @@
+package travelagency.persistence;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import travelagency.catalog.TripCatalogChangedEvent;
+import travelagency.model.enums.ReservationStatus;
+import travelagency.repository.TripRepository;
+
+import java.util.List;
+
+/**
+ * Repairs drift between Trip.bookedSeats and the reservations it summarizes
+ * (rows written outside the entity model, crashes between statements).
+ * Runs once the application is ready and then periodically, one locked chunk of trips per transaction.
+ */
+@Component
+public class BookedSeatsReconciler {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final TripRepository tripRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BookedSeatsReconciler(TripRepository tripRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.tripRepository = tripRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${trips.booked-seats.reconcile-interval:PT1H}",
+            initialDelayString = "${trips.booked-seats.reconcile-interval:PT1H}")
+    public void reconcile() {
+        long after = 0;
+        int repaired = 0;
+        while (true) {
+            long cursor = after;
+            ChunkResult chunk = transactionTemplate.execute(status -> {
+                List<Long> tripIds = tripRepository.lockTripIdsAfter(cursor, CHUNK_SIZE);
+                if (tripIds.isEmpty()) return new ChunkResult(cursor, 0, true);
+                int updated = tripRepository.reconcileBookedSeats(tripIds, ReservationStatus.CANCELLED.name());
+                return new ChunkResult(tripIds.get(tripIds.size() - 1), updated, tripIds.size() < CHUNK_SIZE);
+            });
+            repaired += chunk.repaired();
+            after = chunk.lastTripId();
+            if (chunk.last()) break;
+        }
+        if (repaired > 0) {
+            System.out.println("Reconciled booked seats on " + repaired + " trip(s)");
+            eventPublisher.publishEvent(TripCatalogChangedEvent.all());
+        }
+    }
+
+    private record ChunkResult(long lastTripId, int repaired, boolean last) {}
+}
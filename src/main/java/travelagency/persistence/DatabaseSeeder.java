@@ -1,6 +1,7 @@
 package travelagency.persistence;
 
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import travelagency.model.*;
 import travelagency.model.enums.DifficultyLevel;
@@ -11,8 +12,10 @@ import java.time.LocalDate;
 
 /**
  * Seeds the database with sample data on application startup.
+ * Runs first so SyntheticDataGenerator can add bulk data on top of it.
  */
 @Component
+@Order(0)
 public class DatabaseSeeder implements CommandLineRunner {
 
     private final CustomerRepository customerRepository;
@@ -0,0 +1,76 @@
+package travelagency.persistence;
+
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves the id sequences past ids that were handed out by the former IDENTITY columns.
+ *
+ * Hibernate's schema update creates the sequences starting at 1, so on a database that already has
+ * rows the pooled optimizer would hand out ids that are taken. With allocation size N a sequence value
+ * V covers ids V-N+1..V, so each sequence is restarted at max(id)+N when it is behind. Runs after the
+ * schema update and before anything can insert; on an up-to-date database it only reads.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdSequenceMigration {
+
+    // Must match the allocationSize of the @SequenceGenerator mappings
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final List<SequenceTarget> TARGETS = List.of(
+            new SequenceTarget("users_seq", "users", "user_id"),
+            new SequenceTarget("destinations_seq", "destinations", "destination_id"),
+            new SequenceTarget("trips_seq", "trips", "trip_id"),
+            new SequenceTarget("flights_seq", "flights", "flight_id"),
+            new SequenceTarget("reservations_seq", "reservations", "reservation_id"),
+            new SequenceTarget("payments_seq", "payments", "payment_id"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (SequenceTarget target : TARGETS) {
+            Long maxId = maxId(target);
+            if (maxId == null) continue;
+            Long nextValue = nextValue(target);
+            long required = maxId + ALLOCATION_SIZE;
+            if (nextValue != null && nextValue >= required) continue;
+            jdbcTemplate.execute("alter sequence " + target.sequence() + " restart with " + required);
+            System.out.println("Restarted " + target.sequence() + " at " + required
+                    + " (max " + target.idColumn() + " is " + maxId + ")");
+        }
+    }
+
+    /**
+     * Reserves a block of count consecutive ids for rows inserted with plain JDBC, and returns the first.
+     * The block starts past every id Hibernate may already hold in a pooled range, and the sequence is
+     * restarted past the block before this returns. Callers must not run concurrently with each other.
+     */
+    public long reserveIds(String sequence, long count) {
+        SequenceTarget target = TARGETS.stream().filter(t -> t.sequence().equals(sequence)).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown sequence " + sequence));
+        Long maxId = maxId(target);
+        Long nextValue = nextValue(target);
+        long first = Math.max(nextValue == null ? 1 : nextValue, maxId == null ? 1 : maxId + 1);
+        jdbcTemplate.execute("alter sequence " + sequence + " restart with " + (first + count + ALLOCATION_SIZE));
+        return first;
+    }
+
+    private Long maxId(SequenceTarget target) {
+        return jdbcTemplate.queryForObject(
+                "select max(" + target.idColumn() + ") from " + target.table(), Long.class);
+    }
+
+    private Long nextValue(SequenceTarget target) {
+        return jdbcTemplate.queryForObject(
+                "select base_value from information_schema.sequences "
+                        + "where sequence_schema = current_schema and sequence_name = ?",
+                Long.class, target.sequence().toUpperCase());
+    }
+
+    private record SequenceTarget(String sequence, String table, String idColumn) {}
+}
@@ -0,0 +1,132 @@
+package travelagency.persistence;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import travelagency.analytics.ReservationStatusChangedEvent;
+import travelagency.catalog.TripSeatsChangedEvent;
+import travelagency.model.enums.ReservationStatus;
+import travelagency.repository.ReservationRepository;
+import travelagency.repository.TripRepository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Moves reservations through the time-driven part of their lifecycle with set-based updates:
+ * CONFIRMED reservations of departed trips become COMPLETED, and PENDING reservations left unpaid
+ * past the payment deadline become CANCELLED and give their seats back.
+ *
+ * Works in chunks, one transaction each, so no run holds locks on a large share of the table.
+ * Released seats are published as TripSeatsChangedEvent, which keeps the catalog read models in step.
+ */
+@Component
+public class ReservationLifecycleJob {
+
+    private final ReservationRepository reservationRepository;
+    private final TripRepository tripRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Period paymentDeadline;
+    private final int chunkSize;
+
+    private volatile ReservationLifecycleRun lastRun;
+
+    public ReservationLifecycleJob(ReservationRepository reservationRepository,
+                                   TripRepository tripRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${reservations.lifecycle.payment-deadline:P3D}") Period paymentDeadline,
+                                   @Value("${reservations.lifecycle.chunk-size:1000}") int chunkSize) {
+        this.reservationRepository = reservationRepository;
+        this.tripRepository = tripRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.paymentDeadline = paymentDeadline;
+        this.chunkSize = chunkSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${reservations.lifecycle.interval:PT15M}",
+            initialDelayString = "${reservations.lifecycle.interval:PT15M}")
+    public void scheduledRun() {
+        run();
+    }
+
+    public synchronized ReservationLifecycleRun run() {
+        Instant startedAt = Instant.now();
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        int statements = 0;
+
+        // Completion changes no seat counter or revenue rollup, so it publishes nothing
+        int completed = 0;
+        while (true) {
+            Integer updated = transactionTemplate.execute(status -> reservationRepository.completeDeparted(
+                    today, chunkSize, ReservationStatus.CONFIRMED.name(), ReservationStatus.COMPLETED.name()));
+            statements++;
+            completed += updated;
+            if (updated < chunkSize) break;
+        }
+
+        int expired = 0;
+        int releasedSeats = 0;
+        LocalDate cutoff = today.minus(paymentDeadline);
+        while (true) {
+            ExpiryChunk chunk = transactionTemplate.execute(status -> expireChunk(cutoff));
+            statements += chunk.statements();
+            expired += chunk.expired();
+            releasedSeats += chunk.releasedSeats();
+            if (chunk.expired() < chunkSize) break;
+        }
+
+        ReservationLifecycleRun run = new ReservationLifecycleRun(startedAt,
+                (System.nanoTime() - started) / 1_000_000, completed, expired, releasedSeats, statements);
+        lastRun = run;
+        if (completed > 0 || expired > 0) {
+            System.out.println("Reservation lifecycle: " + completed + " completed, " + expired
+                    + " expired (" + releasedSeats + " seats released) in " + run.durationMillis() + " ms");
+        }
+        return run;
+    }
+
+    public ReservationLifecycleRun lastRun() {
+        return lastRun;
+    }
+
+    private ExpiryChunk expireChunk(LocalDate cutoff) {
+        List<ReservationRepository.SeatHolder> pending = reservationRepository.lockPendingBookedBefore(
+                cutoff, chunkSize, ReservationStatus.PENDING.name());
+        if (pending.isEmpty()) return new ExpiryChunk(0, 0, 1);
+
+        reservationRepository.updateStatus(
+                pending.stream().map(ReservationRepository.SeatHolder::getReservationId).toList(),
+                ReservationStatus.CANCELLED.name());
+        // Trips in id order, matching the lock order of group bookings
+        Map<Long, Integer> seatsByTrip = new TreeMap<>();
+        Map<Long, Integer> reservationsByTrip = new HashMap<>();
+        pending.forEach(r -> {
+            seatsByTrip.merge(r.getTripId(), r.getNumberOfPeople(), Integer::sum);
+            reservationsByTrip.merge(r.getTripId(), 1, Integer::sum);
+        });
+        seatsByTrip.forEach((tripId, seats) -> {
+            tripRepository.releaseSeats(tripId, seats);
+            eventPublisher.publishEvent(new TripSeatsChangedEvent(tripId, -seats));
+            eventPublisher.publishEvent(new ReservationStatusChangedEvent(tripId, ReservationStatus.PENDING,
+                    ReservationStatus.CANCELLED, reservationsByTrip.get(tripId), seats));
+        });
+        int released = seatsByTrip.values().stream().mapToInt(Integer::intValue).sum();
+        return new ExpiryChunk(pending.size(), released, 2 + seatsByTrip.size());
+    }
+
+    private record ExpiryChunk(int expired, int releasedSeats, int statements) {}
+}
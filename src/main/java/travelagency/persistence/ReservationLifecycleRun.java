@@ -0,0 +1,12 @@
+package travelagency.persistence;
+
+import java.time.Instant;
+
+public record ReservationLifecycleRun(
+        Instant startedAt,
+        long durationMillis,
+        int completed,
+        int expired,
+        int releasedSeats,
+        int statements
+) {}
@@ -0,0 +1,37 @@
+package travelagency.persistence;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import travelagency.catalog.TripCatalogChangedEvent;
+import travelagency.model.CulturalTrip;
+import travelagency.model.Trip;
+import travelagency.repository.TripRepository;
+
+/**
+ * Keeps the second-level cache in step with trip writes Hibernate does not see: a catalog-wide change
+ * (reconciler, imports) drops all cached trips, their historical sites and the cached trip queries.
+ *
+ * Seat counters need nothing here. They move through native updates (TripRepository.SEAT_COUNTERS) and
+ * are mapped by TripSeats, which is not cached, so no cached entry ever holds them.
+ */
+@Component
+public class SecondLevelCacheEviction {
+
+    private static final String HISTORICAL_SITES = CulturalTrip.class.getName() + ".historicalSites";
+
+    private final Cache cache;
+
+    public SecondLevelCacheEviction(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(TripCatalogChangedEvent event) {
+        cache.evictQueryRegion(TripRepository.CATALOG_QUERY_REGION);
+        cache.evictEntityData(Trip.class);
+        cache.evictCollectionData(HISTORICAL_SITES);
+    }
+}
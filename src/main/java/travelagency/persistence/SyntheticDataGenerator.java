@@ -0,0 +1,436 @@
+package travelagency.persistence;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import travelagency.model.AdventureTrip;
+import travelagency.model.CulturalTrip;
+import travelagency.model.ReservationNumbers;
+import travelagency.model.VacationTrip;
+import travelagency.model.enums.DifficultyLevel;
+import travelagency.model.enums.PaymentMethod;
+import travelagency.model.enums.ReservationStatus;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Bulk synthetic data for load testing, written with batched JDBC inserts instead of entity saves.
+ *
+ *   java -jar app.jar --seed.trips=100000 --seed.customers=1000000 --seed.reservations=5000000
+ *
+ * Runs after DatabaseSeeder when any of seed.trips, seed.customers or seed.reservations is set, and
+ * adds to whatever is already there. The same seed.random-seed produces the same data (apart from
+ * ids and reservation numbers, which depend on the database). Distributions are skewed the way real
+ * catalogs are: a few destinations and trips draw most bookings, departed trips hold completed
+ * reservations, upcoming ones a mix of confirmed and pending, and a trip that is full turns further
+ * bookings into cancellations, so capacity is never exceeded. Confirmed and completed reservations get
+ * a payment. Rows go out in JDBC batches of seed.batch-size, one transaction per chunk, with a
+ * rows-per-second report for each table.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    private static final int CHUNK_ROWS = 10_000;
+
+    private static final String[][] PLACES = {
+            // name, country, climate, description
+            {"Paris", "France", "Temperate", "Museums, boulevards and cafe culture"},
+            {"Rome", "Italy", "Mediterranean", "Ancient ruins and Renaissance art"},
+            {"Barcelona", "Spain", "Mediterranean", "Gaudi architecture and city beaches"},
+            {"Swiss Alps", "Switzerland", "Alpine", "Glaciers, peaks and mountain huts"},
+            {"Maldives", "Maldives", "Tropical", "Coral atolls and overwater villas"},
+            {"Bali", "Indonesia", "Tropical", "Rice terraces, temples and surf"},
+            {"Kyoto", "Japan", "Temperate", "Shrines, gardens and tea houses"},
+            {"Reykjavik", "Iceland", "Subarctic", "Geysers, lava fields and northern lights"},
+            {"Cusco", "Peru", "Highland", "Inca heritage at the gateway to Machu Picchu"},
+            {"Cape Town", "South Africa", "Mediterranean", "Table Mountain and the Cape Peninsula"},
+            {"Queenstown", "New Zealand", "Temperate", "Bungee, lakes and alpine trails"},
+            {"Marrakesh", "Morocco", "Arid", "Souks, riads and the Atlas mountains"},
+            {"Cancun", "Mexico", "Tropical", "Caribbean beaches and Mayan sites"},
+            {"Santorini", "Greece", "Mediterranean", "Whitewashed villages above the caldera"},
+            {"Banff", "Canada", "Subarctic", "Turquoise lakes in the Rocky Mountains"},
+            {"Phuket", "Thailand", "Tropical", "Islands, beaches and night markets"},
+            {"Istanbul", "Turkey", "Temperate", "Where Europe meets Asia"},
+            {"Patagonia", "Argentina", "Cold", "Glaciers and granite towers"},
+            {"Dubrovnik", "Croatia", "Mediterranean", "Walled old town on the Adriatic"},
+            {"Zanzibar", "Tanzania", "Tropical", "Spice island with white-sand beaches"},
+    };
+    private static final String[] SITES = {"Old Town", "Cathedral", "Royal Palace", "National Museum",
+            "Ancient Amphitheatre", "Citadel", "Botanical Garden", "Monastery", "Archaeological Park",
+            "City Walls", "Opera House", "Harbour Fortress"};
+    private static final String[] RESORT_WORDS = {"Palm", "Coral", "Lagoon", "Sunset", "Azure", "Golden", "Ocean"};
+    private static final String[] FIRST_NAMES = {"Anna", "Jan", "Maria", "Piotr", "Sofia", "Liam", "Emma",
+            "Noah", "Olivia", "Lucas", "Mia", "Ethan", "Zofia", "Adam", "Ella", "Omar", "Yuki", "Ines"};
+    private static final String[] LAST_NAMES = {"Nowak", "Kowalski", "Smith", "Garcia", "Muller", "Rossi",
+            "Dubois", "Tanaka", "Silva", "Jensen", "Novak", "Ivanova", "Brown", "Haddad", "Kim", "Lopez"};
+    private static final String[] CITIES = {"Warsaw", "Krakow", "Berlin", "London", "Madrid", "Lisbon", "Oslo"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IdSequenceMigration idSequences;
+    private final TripSingleTableMigration tripLayout;
+    private final int destinations;
+    private final int trips;
+    private final long customers;
+    private final long reservations;
+    private final long randomSeed;
+    private final int batchSize;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  IdSequenceMigration idSequences,
+                                  TripSingleTableMigration tripLayout,
+                                  @Value("${seed.destinations:0}") int destinations,
+                                  @Value("${seed.trips:0}") int trips,
+                                  @Value("${seed.customers:0}") long customers,
+                                  @Value("${seed.reservations:0}") long reservations,
+                                  @Value("${seed.random-seed:42}") long randomSeed,
+                                  @Value("${seed.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.idSequences = idSequences;
+        this.tripLayout = tripLayout;
+        this.trips = trips;
+        this.destinations = destinations > 0 ? destinations : (trips > 0 ? Math.max(PLACES.length, trips / 500) : 0);
+        this.customers = customers;
+        this.reservations = reservations;
+        this.randomSeed = randomSeed;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (trips == 0 && customers == 0 && reservations == 0) return;
+        if (reservations > 0 && (trips == 0 || customers == 0)) {
+            throw new IllegalArgumentException("seed.reservations needs seed.trips and seed.customers");
+        }
+        System.out.println("Generating synthetic data: " + destinations + " destinations, " + trips + " trips, "
+                + customers + " customers, " + reservations + " reservations (seed " + randomSeed + ")");
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(randomSeed);
+        long rows = 0;
+
+        long firstDestinationId = idSequences.reserveIds("destinations_seq", destinations);
+        rows += generateDestinations(firstDestinationId);
+        TripTable tripTable = new TripTable(trips, idSequences.reserveIds("trips_seq", trips));
+        rows += generateTrips(random.split(), tripTable, firstDestinationId);
+        long firstCustomerId = idSequences.reserveIds("users_seq", customers);
+        rows += generateCustomers(random.split(), firstCustomerId);
+        rows += generateReservations(random.split(), tripTable, firstCustomerId);
+        rows += writeBookedSeats(tripTable);
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("Synthetic data complete: %d rows in %.1f s (%.0f rows/s)%n", rows, seconds, rows / seconds);
+    }
+
+    // ===== Destinations =====
+    private long generateDestinations(long firstId) {
+        Progress progress = new Progress("destinations");
+        List<Object[]> chunk = new ArrayList<>(CHUNK_ROWS);
+        for (int i = 0; i < destinations; i++) {
+            String[] place = PLACES[i % PLACES.length];
+            String name = i < PLACES.length ? place[0] : place[0] + " " + (i / PLACES.length + 1);
+            chunk.add(new Object[]{firstId + i, name, place[1], place[3], place[2]});
+            if (chunk.size() == CHUNK_ROWS || i == destinations - 1) {
+                insert("insert into destinations (destination_id, name, country, description, climate) "
+                        + "values (?, ?, ?, ?, ?)", chunk);
+                progress.add(chunk.size());
+                chunk.clear();
+            }
+        }
+        return progress.finish();
+    }
+
+    // ===== Trips (one trips row, or trips plus subtype row under trips-joined; sites for cultural trips) =====
+    private long generateTrips(SplittableRandom random, TripTable table, long firstDestinationId) {
+        Progress progress = new Progress("trips");
+        LocalDate today = LocalDate.now();
+        List<Object[]> tripRows = new ArrayList<>(CHUNK_ROWS);
+        List<Object[]> adventureRows = new ArrayList<>();
+        List<Object[]> culturalRows = new ArrayList<>();
+        List<Object[]> siteRows = new ArrayList<>();
+        List<Object[]> vacationRows = new ArrayList<>();
+        for (int i = 0; i < trips; i++) {
+            long tripId = table.firstId + i;
+            int place = skewed(random, destinations);
+            String destinationName = PLACES[place % PLACES.length][0];
+            // Departures from six months ago to a year ahead; durations of 3-21 days
+            LocalDate departure = today.plusDays(random.nextInt(-180, 366));
+            LocalDate returning = departure.plusDays(random.nextInt(3, 22));
+            int basePrice = (int) Math.round(Math.exp(random.nextDouble(Math.log(300), Math.log(8000))) / 10) * 10;
+            int capacity = random.nextInt(10, 61);
+            double type = random.nextDouble();
+
+            String tripType;
+            String name;
+            // difficulty_level, equipment_included, guided_tours, resort_name, all_inclusive
+            Object[] subtypeColumns = new Object[5];
+            if (type < 0.35) {
+                tripType = "Adventure";
+                name = destinationName + " Adventure Trek";
+                DifficultyLevel level = DifficultyLevel.values()[random.nextInt(DifficultyLevel.values().length)];
+                subtypeColumns[0] = level.name();
+                subtypeColumns[1] = random.nextDouble() < 0.7;
+                adventureRows.add(new Object[]{tripId, subtypeColumns[0], subtypeColumns[1]});
+                table.type[i] = TripTable.ADVENTURE;
+            } else if (type < 0.70) {
+                tripType = "Cultural";
+                name = destinationName + " Heritage Tour";
+                subtypeColumns[2] = random.nextDouble() < 0.8;
+                culturalRows.add(new Object[]{tripId, subtypeColumns[2]});
+                int sites = random.nextInt(1, 5);
+                int offset = random.nextInt(SITES.length);
+                for (int s = 0; s < sites; s++) {
+                    siteRows.add(new Object[]{tripId, s, destinationName + " " + SITES[(offset + s) % SITES.length]});
+                }
+                table.type[i] = TripTable.CULTURAL;
+            } else {
+                tripType = "Vacation";
+                name = destinationName + " Beach Escape";
+                String resort = RESORT_WORDS[random.nextInt(RESORT_WORDS.length)] + " "
+                        + RESORT_WORDS[random.nextInt(RESORT_WORDS.length)] + " Resort";
+                subtypeColumns[3] = resort;
+                subtypeColumns[4] = random.nextDouble() < 0.4;
+                vacationRows.add(new Object[]{tripId, resort, subtypeColumns[4]});
+                table.type[i] = TripTable.VACATION;
+            }
+            Object[] tripRow = {tripId, tripType, "SYN-" + tripId, name,
+                    "Synthetic " + tripType.toLowerCase() + " trip to " + destinationName,
+                    Date.valueOf(departure), Date.valueOf(returning), BigDecimal.valueOf(basePrice), capacity,
+                    firstDestinationId + place};
+            tripRows.add(tripLayout.singleTable() ? concat(tripRow, subtypeColumns) : tripRow);
+            table.capacity[i] = capacity;
+            table.basePrice[i] = basePrice;
+            table.departureDay[i] = departure.toEpochDay();
+
+            if (tripRows.size() == CHUNK_ROWS || i == trips - 1) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (tripLayout.singleTable()) {
+                        batch("insert into trips (trip_id, trip_type, trip_code, name, description, departure_date, "
+                                + "return_date, base_price, max_participants, destination_id, difficulty_level, "
+                                + "equipment_included, guided_tours, resort_name, all_inclusive) "
+                                + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", tripRows);
+                    } else {
+                        batch("insert into trips (trip_id, trip_type, trip_code, name, description, departure_date, "
+                                + "return_date, base_price, max_participants, destination_id) "
+                                + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", tripRows);
+                        batch("insert into adventure_trips (trip_id, difficulty_level, equipment_included) "
+                                + "values (?, ?, ?)", adventureRows);
+                        batch("insert into cultural_trips (trip_id, guided_tours) values (?, ?)", culturalRows);
+                        batch("insert into vacation_trips (trip_id, resort_name, all_inclusive) values (?, ?, ?)",
+                                vacationRows);
+                    }
+                    batch("insert into cultural_trip_sites (trip_id, site_order, historical_sites) "
+                            + "values (?, ?, ?)", siteRows);
+                });
+                progress.add(tripRows.size() * (tripLayout.singleTable() ? 1L : 2L) + siteRows.size());
+                tripRows.clear();
+                adventureRows.clear();
+                culturalRows.clear();
+                siteRows.clear();
+                vacationRows.clear();
+            }
+        }
+        return progress.finish();
+    }
+
+    // ===== Customers (JOINED: users row plus customers row) =====
+    private long generateCustomers(SplittableRandom random, long firstId) {
+        Progress progress = new Progress("customers");
+        LocalDate today = LocalDate.now();
+        List<Object[]> userRows = new ArrayList<>(CHUNK_ROWS);
+        List<Object[]> customerRows = new ArrayList<>(CHUNK_ROWS);
+        for (long i = 0; i < customers; i++) {
+            long userId = firstId + i;
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String email = (first + "." + last + "." + userId + "@example.com").toLowerCase();
+            userRows.add(new Object[]{userId, "CUSTOMER", email, "", "CUSTOMER"});
+            customerRows.add(new Object[]{userId, userId, first, last, email,
+                    String.format("555-%04d", random.nextInt(10_000)),
+                    "Street " + random.nextInt(1, 200), CITIES[random.nextInt(CITIES.length)],
+                    String.format("%05d", random.nextInt(100_000)), "Poland",
+                    Date.valueOf(today.minusDays(random.nextInt(0, 5 * 365)))});
+            if (userRows.size() == CHUNK_ROWS || i == customers - 1) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    batch("insert into users (user_id, user_type, username, password, role) values (?, ?, ?, ?, ?)",
+                            userRows);
+                    batch("insert into customers (user_id, customer_id, first_name, last_name, email, phone, "
+                            + "street, city, postal_code, country, registration_date) "
+                            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", customerRows);
+                });
+                progress.add(userRows.size() * 2L);
+                userRows.clear();
+                customerRows.clear();
+            }
+        }
+        return progress.finish();
+    }
+
+    // ===== Reservations and their payments =====
+    private long generateReservations(SplittableRandom random, TripTable table, long firstCustomerId) {
+        Progress progress = new Progress("reservations");
+        long today = LocalDate.now().toEpochDay();
+        long firstId = idSequences.reserveIds("reservations_seq", reservations);
+        long paymentId = idSequences.reserveIds("payments_seq", reservations);
+        List<Object[]> reservationRows = new ArrayList<>(CHUNK_ROWS);
+        List<Object[]> paymentRows = new ArrayList<>(CHUNK_ROWS);
+        for (long i = 0; i < reservations; i++) {
+            long reservationId = firstId + i;
+            int trip = skewed(random, trips);
+            long customerId = firstCustomerId + random.nextLong(customers);
+            double size = random.nextDouble();
+            int people = size < 0.35 ? 1 : size < 0.75 ? 2 : size < 0.90 ? 3 : 4;
+            long departure = table.departureDay[trip];
+            boolean departed = departure <= today;
+
+            ReservationStatus status;
+            double outcome = random.nextDouble();
+            if (table.booked[trip] + people > table.capacity[trip] || outcome < 0.12) {
+                status = ReservationStatus.CANCELLED;
+            } else if (departed) {
+                status = ReservationStatus.COMPLETED;
+            } else {
+                status = outcome < 0.70 ? ReservationStatus.CONFIRMED : ReservationStatus.PENDING;
+            }
+            if (status != ReservationStatus.CANCELLED) table.booked[trip] += people;
+
+            // Booked 1-180 days before departure, never in the future; unpaid bookings are recent
+            long bookingDay = status == ReservationStatus.PENDING
+                    ? today - random.nextInt(0, 3)
+                    : Math.min(today, departure - random.nextInt(1, 181));
+            reservationRows.add(new Object[]{reservationId, ReservationNumbers.next(),
+                    Date.valueOf(LocalDate.ofEpochDay(bookingDay)), status.name(), people, customerId,
+                    table.firstId + trip});
+            if (status == ReservationStatus.CONFIRMED || status == ReservationStatus.COMPLETED) {
+                BigDecimal amount = BigDecimal.valueOf(table.basePrice[trip])
+                        .multiply(table.priceMultiplier(trip)).multiply(BigDecimal.valueOf(people));
+                PaymentMethod method = random.nextDouble() < 0.8 ? PaymentMethod.BANK_TRANSFER : PaymentMethod.CASH;
+                paymentRows.add(new Object[]{paymentId++, amount, method.name(),
+                        Date.valueOf(LocalDate.ofEpochDay(Math.min(today, bookingDay + random.nextInt(0, 3)))),
+                        "SYN-" + reservationId, reservationId});
+            }
+
+            if (reservationRows.size() == CHUNK_ROWS || i == reservations - 1) {
+                transactionTemplate.executeWithoutResult(s -> {
+                    batch("insert into reservations (reservation_id, reservation_number, booking_date, status, "
+                            + "number_of_people, customer_id, trip_id) values (?, ?, ?, ?, ?, ?, ?)", reservationRows);
+                    batch("insert into payments (payment_id, amount, method, payment_date, transaction_reference, "
+                            + "reservation_id) values (?, ?, ?, ?, ?, ?)", paymentRows);
+                });
+                progress.add(reservationRows.size() + paymentRows.size());
+                reservationRows.clear();
+                paymentRows.clear();
+            }
+        }
+        return progress.finish();
+    }
+
+    // The generator tracked every trip's seats, so the counters are written directly instead of recounted
+    private long writeBookedSeats(TripTable table) {
+        Progress progress = new Progress("booked seat counters");
+        List<Object[]> chunk = new ArrayList<>(CHUNK_ROWS);
+        for (int i = 0; i < trips; i++) {
+            if (table.booked[i] > 0) chunk.add(new Object[]{table.booked[i], table.firstId + i});
+            if (chunk.size() == CHUNK_ROWS || (i == trips - 1 && !chunk.isEmpty())) {
+                insert("update trips set booked_seats = ? where trip_id = ?", chunk);
+                progress.add(chunk.size());
+                chunk.clear();
+            }
+        }
+        return progress.finish();
+    }
+
+    // ===== JDBC helpers =====
+    private void insert(String sql, List<Object[]> rows) {
+        transactionTemplate.executeWithoutResult(status -> batch(sql, rows));
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        ParameterizedPreparedStatementSetter<Object[]> setter = (ps, row) -> {
+            for (int i = 0; i < row.length; i++) ps.setObject(i + 1, row[i]);
+        };
+        jdbcTemplate.batchUpdate(sql, rows, batchSize, setter);
+    }
+
+    private static Object[] concat(Object[] first, Object[] second) {
+        Object[] row = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, row, first.length, second.length);
+        return row;
+    }
+
+    // Index in [0, n) with popularity falling off from the front: the first tenth draws about a third of picks
+    private static int skewed(SplittableRandom random, int n) {
+        double r = random.nextDouble();
+        return (int) (n * r * r);
+    }
+
+    private static final class TripTable {
+        static final byte ADVENTURE = 0;
+        static final byte CULTURAL = 1;
+        static final byte VACATION = 2;
+
+        final long firstId;
+        final byte[] type;
+        final int[] capacity;
+        final int[] booked;
+        final int[] basePrice;
+        final long[] departureDay;
+
+        TripTable(int trips, long firstId) {
+            this.firstId = firstId;
+            this.type = new byte[trips];
+            this.capacity = new int[trips];
+            this.booked = new int[trips];
+            this.basePrice = new int[trips];
+            this.departureDay = new long[trips];
+        }
+
+        BigDecimal priceMultiplier(int trip) {
+            return switch (type[trip]) {
+                case ADVENTURE -> AdventureTrip.PRICE_MULTIPLIER;
+                case CULTURAL -> CulturalTrip.PRICE_MULTIPLIER;
+                default -> VacationTrip.PRICE_MULTIPLIER;
+            };
+        }
+    }
+
+    private static final class Progress {
+        private final String label;
+        private final long started = System.nanoTime();
+        private long rows;
+        private long lastReport = started;
+
+        Progress(String label) {
+            this.label = label;
+        }
+
+        void add(long count) {
+            rows += count;
+            long now = System.nanoTime();
+            if (now - lastReport > 5_000_000_000L) {
+                lastReport = now;
+                System.out.printf("  %s: %d rows (%.0f rows/s)%n", label, rows, rows / ((now - started) / 1e9));
+            }
+        }
+
+        long finish() {
+            double seconds = (System.nanoTime() - started) / 1e9;
+            if (rows > 0) System.out.printf("  %s: %d rows in %.1f s (%.0f rows/s)%n", label, rows, seconds, rows / seconds);
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package travelagency.persistence;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import travelagency.dto.TripImportReportDto;
+import travelagency.service.TripImportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Imports a trip catalog file at startup, the command-line counterpart of POST /api/trips/import:
+ *
+ *   java -jar app.jar --trips.import.file=season-2027.csv
+ *
+ * Files ending in .csv are read as CSV, anything else as JSON. Runs after DatabaseSeeder; the report
+ * goes to standard output.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class TripImportRunner implements CommandLineRunner {
+
+    // Row errors printed in full; the rest are only counted
+    private static final int PRINTED_ERRORS = 20;
+
+    private final TripImportService tripImportService;
+    private final String file;
+
+    public TripImportRunner(TripImportService tripImportService,
+                            @Value("${trips.import.file:}") String file) {
+        this.tripImportService = tripImportService;
+        this.file = file;
+    }
+
+    @Override
+    public void run(String... args) throws IOException {
+        if (file.isBlank()) return;
+        Path path = Path.of(file);
+        TripImportService.Format format = path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")
+                ? TripImportService.Format.CSV : TripImportService.Format.JSON;
+        System.out.println("Importing trips from " + path.toAbsolutePath() + " (" + format + ")");
+        TripImportReportDto report;
+        try (InputStream in = Files.newInputStream(path)) {
+            report = tripImportService.importTrips(format, in);
+        }
+        System.out.println("Trip import finished: " + report.rowsRead() + " rows read, " + report.imported()
+                + " imported, " + report.rejected() + " rejected, " + report.destinationsCreated()
+                + " destinations created in " + report.durationMillis() + " ms (" + report.tripsPerSecond()
+                + " trips/s)");
+        if (report.error() != null) System.out.println("  " + report.error());
+        report.errors().stream().limit(PRINTED_ERRORS).forEach(e ->
+                System.out.println("  row " + e.row() + (e.tripCode() != null ? " (" + e.tripCode() + ")" : "")
+                        + ": " + e.message()));
+        if (report.rejected() > PRINTED_ERRORS) {
+            System.out.println("  ... " + (report.rejected() - PRINTED_ERRORS) + " more rejected rows");
+        }
+    }
+}
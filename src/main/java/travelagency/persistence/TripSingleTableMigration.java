@@ -0,0 +1,65 @@
+package travelagency.persistence;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.SingleTableEntityPersister;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import travelagency.model.Trip;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Converts a database from the former JOINED trip layout to SINGLE_TABLE. Hibernate's schema update
+ * adds the subtype columns to trips (and keys cultural_trip_sites onto trips); this copies them over from
+ * adventure_trips, cultural_trips and vacation_trips and drops those tables along with the foreign keys
+ * onto them. Runs after the schema update and before anything loads a trip; a table that is gone has
+ * been converted, so on an up-to-date database it only reads the catalog. Each copy is repeatable, so
+ * an interrupted run finishes on the next start.
+ *
+ * Does nothing when the trips-joined profile maps the JOINED layout again.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class TripSingleTableMigration {
+
+    private static final List<SubtypeTable> SUBTYPE_TABLES = List.of(
+            new SubtypeTable("adventure_trips", List.of("difficulty_level", "equipment_included")),
+            new SubtypeTable("cultural_trips", List.of("guided_tours")),
+            new SubtypeTable("vacation_trips", List.of("resort_name", "all_inclusive")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean singleTable;
+
+    public TripSingleTableMigration(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.singleTable = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMappingMetamodel()
+                .getEntityDescriptor(Trip.class) instanceof SingleTableEntityPersister;
+        if (!singleTable) return;
+        for (SubtypeTable subtype : SUBTYPE_TABLES) {
+            if (!tableExists(subtype.table())) continue;
+            int copied = jdbcTemplate.update("merge into trips t using " + subtype.table() + " s "
+                    + "on t.trip_id = s.trip_id when matched then update set "
+                    + subtype.columns().stream().map(c -> "t." + c + " = s." + c).collect(Collectors.joining(", ")));
+            jdbcTemplate.execute("drop table " + subtype.table() + " cascade");
+            System.out.println("Moved " + copied + " rows of " + subtype.table() + " into trips (single-table layout)");
+        }
+    }
+
+    /** Whether the Trip hierarchy is mapped to the single trips table (false under the trips-joined profile). */
+    public boolean singleTable() {
+        return singleTable;
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "select count(*) from information_schema.tables "
+                        + "where table_schema = current_schema and table_name = ?",
+                Integer.class, table.toUpperCase());
+        return count != null && count > 0;
+    }
+
+    private record SubtypeTable(String table, List<String> columns) {}
+}
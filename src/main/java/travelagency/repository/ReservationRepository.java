@@ -1,10 +1,135 @@
 package travelagency.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import travelagency.dto.CustomerReservationDto;
+import travelagency.dto.ReservationDto;
+import travelagency.dto.TripReservationDto;
 import travelagency.model.Reservation;
+import travelagency.model.enums.ReservationStatus;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+    // ===== Computed columns shared by the DTO projections (mirror the entity's derived attributes) =====
+    String TRIP_TYPE = "case type(t) when AdventureTrip then 'Adventure' "
+            + "when CulturalTrip then 'Cultural' when VacationTrip then 'Vacation' end";
+    String FINAL_PRICE = "(t.basePrice * case type(t) "
+            + "when AdventureTrip then travelagency.model.AdventureTrip.PRICE_MULTIPLIER "
+            + "when CulturalTrip then travelagency.model.CulturalTrip.PRICE_MULTIPLIER "
+            + "when VacationTrip then travelagency.model.VacationTrip.PRICE_MULTIPLIER end)";
+    String TOTAL_PRICE = "(" + FINAL_PRICE + " * r.numberOfPeople)";
+    String DURATION = "cast((t.returnDate - t.departureDate) by day as Integer)";
+    String CUSTOMER_NAME = "concat(c.firstName, ' ', c.lastName)";
+
     Optional<Reservation> findByReservationNumber(String reservationNumber);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Reservation> findForUpdateByReservationNumber(String reservationNumber);
+
+    // Payment batches: rows locked in id order so a concurrent cancel or expiry cannot interleave.
+    // The trip's inverse one-to-one flight is joined too, or it is selected again for every reservation.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = {"trip", "trip.flight", "payment"})
+    @Query("select r from Reservation r where r.reservationNumber in :reservationNumbers order by r.reservationId")
+    List<Reservation> findAllForUpdateByReservationNumberIn(
+            @Param("reservationNumbers") Collection<String> reservationNumbers);
+
+    // ===== Keyset pages: newest first, strictly older than the cursor, one joined SELECT each =====
+    @Query("select new travelagency.dto.ReservationDto(r.reservationNumber, r.reservationId, "
+            + "c.userId, " + CUSTOMER_NAME + ", t.tripId, t.name, r.numberOfPeople, cast(r.status as String), "
+            + "r.bookingDate, " + TOTAL_PRICE + ") "
+            + "from Reservation r join r.customer c join r.trip t "
+            + "where r.reservationId < :after order by r.reservationId desc")
+    List<ReservationDto> findPage(@Param("after") long after, Limit limit);
+
+    @Query("select new travelagency.dto.TripReservationDto(r.reservationNumber, r.reservationId, "
+            + CUSTOMER_NAME + ", r.numberOfPeople, cast(r.status as String), r.bookingDate, " + TOTAL_PRICE + ") "
+            + "from Reservation r join r.customer c join r.trip t "
+            + "where t.tripId = :tripId and r.reservationId < :after order by r.reservationId desc")
+    List<TripReservationDto> findTripPage(@Param("tripId") long tripId, @Param("after") long after, Limit limit);
+
+    @Query("select new travelagency.dto.CustomerReservationDto(r.reservationNumber, r.reservationId, "
+            + "r.numberOfPeople, cast(r.status as String), r.bookingDate, " + TOTAL_PRICE + ", "
+            + "t.tripId, t.name, " + TRIP_TYPE + ", coalesce(d.name, ''), coalesce(d.country, ''), "
+            + "t.departureDate, t.returnDate, " + DURATION + ", " + FINAL_PRICE + ") "
+            + "from Reservation r join r.trip t left join t.destination d "
+            + "where r.customer.userId = :customerId and r.reservationId < :after order by r.reservationId desc")
+    List<CustomerReservationDto> findCustomerPage(@Param("customerId") long customerId,
+                                                  @Param("after") long after, Limit limit);
+
+    // ===== Export: oldest first past the cursor, through a forward-only cursor of read-only entities =====
+    // Everything ReservationMapper and the entity's derived attributes touch is fetched in the same row
+    // (the inverse one-to-ones included), and loading them leaves the second-level cache alone.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("select r from Reservation r join fetch r.customer join fetch r.trip t "
+            + "left join fetch t.destination left join fetch t.flight left join fetch r.payment "
+            + "where r.reservationId > :after order by r.reservationId")
+    Stream<Reservation> streamForExport(@Param("after") long after);
+
+    // ===== Revenue rollups: reservations and seats per trip and status, summed by the database =====
+    interface TripStatusTotals {
+        Long getTripId();
+        ReservationStatus getStatus();
+        Long getReservations();
+        Long getSeats();
+    }
+
+    @Query("select r.trip.tripId as tripId, r.status as status, count(r) as reservations, "
+            + "sum(r.numberOfPeople) as seats from Reservation r group by r.trip.tripId, r.status")
+    List<TripStatusTotals> sumByTripAndStatus();
+
+    @Query("select r.trip.tripId as tripId, r.status as status, count(r) as reservations, "
+            + "sum(r.numberOfPeople) as seats from Reservation r where r.trip.tripId = :tripId "
+            + "group by r.trip.tripId, r.status")
+    List<TripStatusTotals> sumByStatusForTrip(@Param("tripId") long tripId);
+
+    // ===== Lifecycle bulk updates: one chunk of rows per statement, no entities loaded =====
+    interface SeatHolder {
+        Long getReservationId();
+        Long getTripId();
+        Integer getNumberOfPeople();
+    }
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reservations"))
+    @Query(value = "update reservations set status = :completed where reservation_id in ("
+            + "select r.reservation_id from reservations r join trips t on t.trip_id = r.trip_id "
+            + "where r.status = :confirmed and t.departure_date <= :today "
+            + "order by r.reservation_id limit :limit)",
+            nativeQuery = true)
+    int completeDeparted(@Param("today") LocalDate today, @Param("limit") int limit,
+                         @Param("confirmed") String confirmed, @Param("completed") String completed);
+
+    // Locked until commit, so a concurrent cancel or payment waits and then sees the new status
+    @Query(value = "select reservation_id as reservationId, trip_id as tripId, number_of_people as numberOfPeople "
+            + "from reservations where status = :pending and booking_date < :cutoff "
+            + "order by reservation_id limit :limit for update",
+            nativeQuery = true)
+    List<SeatHolder> lockPendingBookedBefore(@Param("cutoff") LocalDate cutoff, @Param("limit") int limit,
+                                             @Param("pending") String pending);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "reservations"))
+    @Query(value = "update reservations set status = :status where reservation_id in (:reservationIds)",
+            nativeQuery = true)
+    int updateStatus(@Param("reservationIds") Collection<Long> reservationIds, @Param("status") String status);
 }
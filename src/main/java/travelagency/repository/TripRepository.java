@@ -1,7 +1,134 @@
 package travelagency.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import travelagency.model.Trip;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 public interface TripRepository extends JpaRepository<Trip, Long> {
+
+    /**
+     * Query space of the native seat-counter updates below. A native update without one makes
+     * Hibernate drop the entire second-level cache; this name matches no entity table, so nothing is
+     * dropped. Nothing needs to be: the counters are mapped by the uncached TripSeats, and no cached
+     * trip or cached query row carries them.
+     */
+    String SEAT_COUNTERS = "trip_seat_counters";
+    String CATALOG_QUERY_REGION = "trip-catalog-queries";
+
+    // ===== Catalog reads: fetched with the Trip.catalog graph, historical sites batch-loaded =====
+    @EntityGraph("Trip.catalog")
+    @Query("select t from Trip t order by t.tripId")
+    List<Trip> findCatalog();
+
+    // Query cache in its own region. Cached rows are whole rows, so the graph leaves the seat counters out
+    @EntityGraph("Trip.cachedCatalog")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CATALOG_QUERY_REGION)
+    })
+    Optional<Trip> findCatalogEntryByTripId(long tripId);
+
+    @EntityGraph("Trip.catalog")
+    List<Trip> findCatalogEntriesByTripIdIn(Collection<Long> tripIds);
+
+    // Seats left on one trip, straight from its row: read models re-read it after each seat change
+    @Query(value = "select max_participants - booked_seats - held_seats from trips where trip_id = :tripId",
+            nativeQuery = true)
+    Optional<Integer> findAvailableSpots(@Param("tripId") long tripId);
+
+    // ===== Revenue rollups: what a trip contributes besides its reservations, no entities loaded =====
+    interface RollupFacts {
+        Long getTripId();
+        String getType();
+        String getDestination();
+        LocalDate getDepartureDate();
+        BigDecimal getFinalPrice();
+        Integer getCapacity();
+    }
+
+    String ROLLUP_FACTS = "select t.tripId as tripId, " + ReservationRepository.TRIP_TYPE + " as type, "
+            + "coalesce(d.name, '') as destination, t.departureDate as departureDate, "
+            + ReservationRepository.FINAL_PRICE + " as finalPrice, t.maxParticipants as capacity "
+            + "from Trip t left join t.destination d where t.departureDate is not null";
+
+    @Query(ROLLUP_FACTS)
+    List<RollupFacts> findRollupFacts();
+
+    // Row-locks the trips in id order, so group bookings over overlapping trips cannot deadlock each other.
+    // The one-to-one flight and the seat counters are joined instead of being selected trip by trip.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = {"flight", "seats"})
+    @Query("select t from Trip t where t.tripId in :tripIds order by t.tripId")
+    List<Trip> findAllForUpdate(@Param("tripIds") Collection<Long> tripIds);
+
+    // Conditional increment: succeeds (returns 1) only while the seats still fit, so concurrent bookings cannot oversell
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SEAT_COUNTERS))
+    @Query(value = "update trips set booked_seats = booked_seats + :seats "
+            + "where trip_id = :tripId and booked_seats + held_seats + :seats <= max_participants",
+            nativeQuery = true)
+    int allocateSeats(@Param("tripId") long tripId, @Param("seats") int seats);
+
+    // ===== Checkout holds: same conditional pattern on held_seats =====
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SEAT_COUNTERS))
+    @Query(value = "update trips set held_seats = held_seats + :seats "
+            + "where trip_id = :tripId and booked_seats + held_seats + :seats <= max_participants",
+            nativeQuery = true)
+    int holdSeats(@Param("tripId") long tripId, @Param("seats") int seats);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SEAT_COUNTERS))
+    @Query(value = "update trips set held_seats = held_seats - :seats where trip_id = :tripId",
+            nativeQuery = true)
+    int releaseHeldSeats(@Param("tripId") long tripId, @Param("seats") int seats);
+
+    // Held seats were already counted against capacity, so turning them into bookings needs no check
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SEAT_COUNTERS))
+    @Query(value = "update trips set held_seats = held_seats - :seats, booked_seats = booked_seats + :seats "
+            + "where trip_id = :tripId",
+            nativeQuery = true)
+    int convertHeldSeats(@Param("tripId") long tripId, @Param("seats") int seats);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SEAT_COUNTERS))
+    @Query(value = "update trips set held_seats = 0 where held_seats <> 0", nativeQuery = true)
+    int clearHeldSeats();
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SEAT_COUNTERS))
+    @Query(value = "update trips set booked_seats = booked_seats - :seats where trip_id = :tripId",
+            nativeQuery = true)
+    int releaseSeats(@Param("tripId") long tripId, @Param("seats") int seats);
+
+    // Row locks held until commit keep bookings on these trips out while their counters are recounted
+    @Query(value = "select trip_id from trips where trip_id > :after order by trip_id limit :limit for update",
+            nativeQuery = true)
+    List<Long> lockTripIdsAfter(@Param("after") long after, @Param("limit") int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = SEAT_COUNTERS))
+    @Query(value = "update trips t set booked_seats = ("
+            + "select coalesce(sum(r.number_of_people), 0) from reservations r "
+            + "where r.trip_id = t.trip_id and r.status <> :cancelled) "
+            + "where t.trip_id in (:tripIds) and t.booked_seats <> ("
+            + "select coalesce(sum(r.number_of_people), 0) from reservations r "
+            + "where r.trip_id = t.trip_id and r.status <> :cancelled)",
+            nativeQuery = true)
+    int reconcileBookedSeats(@Param("tripIds") Collection<Long> tripIds, @Param("cancelled") String cancelled);
 }
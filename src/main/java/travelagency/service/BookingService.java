@@ -0,0 +1,183 @@
+package travelagency.service;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import travelagency.analytics.ReservationStatusChangedEvent;
+import travelagency.catalog.TripSeatsChangedEvent;
+import travelagency.model.Customer;
+import travelagency.model.Reservation;
+import travelagency.model.Trip;
+import travelagency.model.enums.ReservationStatus;
+import travelagency.repository.CustomerRepository;
+import travelagency.repository.ReservationRepository;
+import travelagency.repository.TripRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Seat allocation for bookings and cancellations.
+ *
+ * Seats are taken with a single conditional UPDATE on the trip row, so the capacity check and the
+ * increment are one atomic step and concurrent bookings can never oversell. The row lock it takes is
+ * held only for the rest of the short booking transaction; a booking that times out waiting for it is
+ * retried with jittered backoff.
+ */
+@Service
+public class BookingService {
+
+    private static final int MAX_ATTEMPTS = 4;
+    private static final long BASE_BACKOFF_NANOS = 2_000_000L;
+
+    private final CustomerRepository customerRepository;
+    private final TripRepository tripRepository;
+    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BookingService(CustomerRepository customerRepository,
+                          TripRepository tripRepository,
+                          ReservationRepository reservationRepository,
+                          TransactionTemplate transactionTemplate,
+                          ApplicationEventPublisher eventPublisher) {
+        this.customerRepository = customerRepository;
+        this.tripRepository = tripRepository;
+        this.reservationRepository = reservationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Books seats on a trip.
+     *
+     * @throws IllegalArgumentException if the customer or trip does not exist or numberOfPeople < 1
+     * @throws IllegalStateException if the trip has too few seats left or stays contended
+     */
+    public Reservation book(long customerId, long tripId, int numberOfPeople) {
+        if (numberOfPeople < 1) {
+            throw new IllegalArgumentException("Number of people must be at least 1");
+        }
+        return withRetry(() -> transactionTemplate.execute(status -> {
+            Customer customer = customerRepository.findById(customerId).orElse(null);
+            Trip trip = tripRepository.findById(tripId).orElse(null);
+            if (customer == null || trip == null) {
+                throw new IllegalArgumentException("Customer or Trip not found");
+            }
+            if (tripRepository.allocateSeats(tripId, numberOfPeople) == 0) {
+                throw new IllegalStateException("Not enough spots available");
+            }
+            eventPublisher.publishEvent(new TripSeatsChangedEvent(tripId, numberOfPeople));
+            eventPublisher.publishEvent(ReservationStatusChangedEvent.booked(tripId, numberOfPeople));
+            return reservationRepository.save(new Reservation(customer, trip, numberOfPeople));
+        }));
+    }
+
+    public record BatchItem(long customerId, long tripId, int numberOfPeople) {}
+
+    /** Per-item result of a group booking: the reservation, or why the item was rejected. */
+    public record BatchResult(Reservation reservation, String error) {
+        static BatchResult rejected(String error) {
+            return new BatchResult(null, error);
+        }
+    }
+
+    /**
+     * Books a group of reservations across several trips in one transaction.
+     *
+     * Customers and trips are loaded with one query each, the trip rows staying locked until commit.
+     * Items are then accepted in request order while they fit the trip's remaining seats, each trip
+     * gets one seat update for all its accepted items, and the reservations are inserted as a JDBC
+     * batch. Rejected items do not affect the others.
+     *
+     * @throws IllegalStateException if the trips stay contended
+     */
+    public List<BatchResult> bookBatch(List<BatchItem> items) {
+        return withRetry(() -> transactionTemplate.execute(status -> {
+            Map<Long, Customer> customers = new HashMap<>();
+            customerRepository.findAllById(items.stream().map(BatchItem::customerId).distinct().toList())
+                    .forEach(customer -> customers.put(customer.getUserId(), customer));
+            Map<Long, Trip> trips = new HashMap<>();
+            tripRepository.findAllForUpdate(items.stream().map(BatchItem::tripId).distinct().toList())
+                    .forEach(trip -> trips.put(trip.getTripId(), trip));
+
+            // The trip rows are locked, so their counters are current and cannot change under us
+            Map<Long, Integer> remaining = new HashMap<>();
+            trips.values().forEach(trip -> remaining.put(trip.getTripId(), trip.getAvailableSpots()));
+            Map<Long, Integer> allocated = new LinkedHashMap<>();
+            List<BatchResult> results = new ArrayList<>(items.size());
+            List<Reservation> reservations = new ArrayList<>();
+            for (BatchItem item : items) {
+                Customer customer = customers.get(item.customerId());
+                Trip trip = trips.get(item.tripId());
+                if (item.numberOfPeople() < 1) {
+                    results.add(BatchResult.rejected("Number of people must be at least 1"));
+                } else if (customer == null || trip == null) {
+                    results.add(BatchResult.rejected("Customer or Trip not found"));
+                } else if (remaining.get(item.tripId()) < item.numberOfPeople()) {
+                    results.add(BatchResult.rejected("Not enough spots available"));
+                } else {
+                    remaining.merge(item.tripId(), -item.numberOfPeople(), Integer::sum);
+                    allocated.merge(item.tripId(), item.numberOfPeople(), Integer::sum);
+                    Reservation reservation = new Reservation(customer, trip, item.numberOfPeople());
+                    reservations.add(reservation);
+                    results.add(new BatchResult(reservation, null));
+                }
+            }
+
+            allocated.forEach((tripId, seats) -> {
+                if (tripRepository.allocateSeats(tripId, seats) == 0) {
+                    throw new IllegalStateException("Seat counter of trip " + tripId + " changed while locked");
+                }
+                eventPublisher.publishEvent(new TripSeatsChangedEvent(tripId, seats));
+            });
+            reservationRepository.saveAll(reservations);
+            reservations.forEach(r -> eventPublisher.publishEvent(
+                    ReservationStatusChangedEvent.booked(r.getTrip().getTripId(), r.getNumberOfPeople())));
+            return results;
+        }));
+    }
+
+    /**
+     * Cancels a reservation and gives its seats back to the trip.
+     *
+     * @throws IllegalArgumentException if no reservation has this number
+     * @throws IllegalStateException if the reservation can no longer be cancelled
+     */
+    public Reservation cancel(String reservationNumber) {
+        return withRetry(() -> transactionTemplate.execute(status -> {
+            // Locking the row makes a concurrent second cancel see CANCELLED instead of releasing twice
+            Reservation reservation = reservationRepository.findForUpdateByReservationNumber(reservationNumber)
+                    .orElseThrow(() -> new IllegalArgumentException("Reservation not found"));
+            ReservationStatus previous = reservation.getStatus();
+            reservation.cancel();
+            long tripId = reservation.getTrip().getTripId();
+            tripRepository.releaseSeats(tripId, reservation.getNumberOfPeople());
+            eventPublisher.publishEvent(new TripSeatsChangedEvent(tripId, -reservation.getNumberOfPeople()));
+            eventPublisher.publishEvent(new ReservationStatusChangedEvent(tripId, previous,
+                    ReservationStatus.CANCELLED, 1, reservation.getNumberOfPeople()));
+            return reservation;
+        }));
+    }
+
+    private <T> T withRetry(Supplier<T> attempt) {
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.get();
+            } catch (PessimisticLockingFailureException e) {
+                if (i == MAX_ATTEMPTS) {
+                    throw new IllegalStateException("Trip is busy, please retry");
+                }
+                long ceiling = BASE_BACKOFF_NANOS << i;
+                LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling));
+            }
+        }
+    }
+}
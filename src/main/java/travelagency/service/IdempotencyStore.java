@@ -0,0 +1,134 @@
+package travelagency.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Results of completed requests keyed by client-supplied idempotency keys.
+ *
+ * The first request for a key runs its action; concurrent duplicates wait for that result and later
+ * duplicates replay it without running anything. A key reused with a different request fingerprint
+ * is rejected. Failed actions are not remembered, so a retry after an error runs again. Completed
+ * keys live for a fixed TTL and the store is bounded; since every key gets the same TTL, completion
+ * order is also expiry order and one FIFO queue serves both limits.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final long ttlNanos;
+    private final int maxKeys;
+    private final Duration waitTimeout;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    public IdempotencyStore(@Value("${reservations.idempotency.ttl:PT24H}") Duration ttl,
+                            @Value("${reservations.idempotency.max-keys:50000}") int maxKeys,
+                            @Value("${reservations.idempotency.wait-timeout:PT30S}") Duration waitTimeout) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxKeys = maxKeys;
+        this.waitTimeout = waitTimeout;
+    }
+
+    public record Outcome<T>(T value, boolean replayed) {}
+
+    /**
+     * Runs action once per key. Exceptions thrown by the action reach every caller waiting on it.
+     *
+     * @throws IllegalArgumentException if the key is invalid or was used with a different fingerprint
+     * @throws IllegalStateException if the original request is still running after the wait timeout
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Outcome<T> execute(String key, String fingerprint, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        Entry fresh = new Entry(key, fingerprint);
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, fresh);
+            if (existing == null) break;
+            if (existing.isExpired(System.nanoTime())) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+            }
+            return new Outcome<>((T) await(existing.result), true);
+        }
+
+        T value;
+        try {
+            value = action.get();
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, fresh);
+            fresh.result.completeExceptionally(e);
+            throw e;
+        }
+        // Only completed entries are queued, so the TTL runs from completion and in-flight keys never expire
+        fresh.expiresAt = System.nanoTime() + ttlNanos;
+        fresh.result.complete(value);
+        insertionOrder.add(fresh);
+        evict();
+        return new Outcome<>(value, false);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private Object await(CompletableFuture<Object> result) {
+        try {
+            return result.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            if (e.getCause() instanceof Error error) throw error;
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    // Drops expired entries and the oldest ones beyond maxKeys; both sit at the head of the queue
+    private void evict() {
+        long now = System.nanoTime();
+        Entry head;
+        while ((head = insertionOrder.peek()) != null
+                && (head.isExpired(now) || entries.size() > maxKeys)) {
+            if (insertionOrder.remove(head)) entries.remove(head.key, head);
+        }
+    }
+
+    private static final class Entry {
+        final String key;
+        final String fingerprint;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        volatile long expiresAt;
+
+        Entry(String key, String fingerprint) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+        }
+
+        boolean isExpired(long now) {
+            return result.isDone() && now - expiresAt > 0;
+        }
+    }
+}
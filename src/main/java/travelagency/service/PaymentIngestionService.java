@@ -0,0 +1,210 @@
+package travelagency.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import travelagency.analytics.ReservationStatusChangedEvent;
+import travelagency.dto.PaymentSubmissionDto;
+import travelagency.model.Payment;
+import travelagency.model.Reservation;
+import travelagency.model.enums.PaymentMethod;
+import travelagency.model.enums.ReservationStatus;
+import travelagency.repository.ReservationRepository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous payment recording.
+ *
+ * Submissions go into a bounded queue and the caller gets a submission id straight away; a full
+ * queue refuses new work instead of growing. Worker threads drain the queue in batches and apply
+ * each batch in one transaction: the reservations are loaded and row-locked with one query, every
+ * payment is validated and recorded through Reservation.recordPayment (PENDING -> CONFIRMED), and
+ * the inserts and status updates are flushed as JDBC batches. A payment that fails validation is
+ * rejected on its own without affecting the rest of its batch.
+ */
+@Service
+public class PaymentIngestionService implements DisposableBean {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String APPLIED = "APPLIED";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    public record Submission(String reservationNumber, BigDecimal amount, PaymentMethod method,
+                             LocalDate paymentDate, String transactionReference) {}
+
+    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int workers;
+    private final int batchSize;
+    private final int statusRetention;
+
+    private final BlockingQueue<Queued> queue;
+    private final Map<String, PaymentSubmissionDto> statuses = new ConcurrentHashMap<>();
+    private final Queue<String> finishedOrder = new ConcurrentLinkedQueue<>();
+    private volatile ExecutorService executor;
+    private volatile boolean accepting = true;
+
+    public PaymentIngestionService(ReservationRepository reservationRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${payments.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${payments.workers:2}") int workers,
+                                   @Value("${payments.batch-size:200}") int batchSize,
+                                   @Value("${payments.status-retention:100000}") int statusRetention) {
+        this.reservationRepository = reservationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.statusRetention = statusRetention;
+    }
+
+    /**
+     * Queues a payment for processing.
+     *
+     * @return the queued submission, or empty when the queue is full
+     * @throws IllegalArgumentException if the submission is incomplete
+     * @throws IllegalStateException if the service is shutting down
+     */
+    public Optional<PaymentSubmissionDto> submit(Submission submission) {
+        if (submission.reservationNumber() == null || submission.amount() == null || submission.method() == null) {
+            throw new IllegalArgumentException("reservationNumber, amount and method are required");
+        }
+        if (!accepting) {
+            throw new IllegalStateException("Payment processing is shutting down");
+        }
+        PaymentSubmissionDto status = new PaymentSubmissionDto(UUID.randomUUID().toString(),
+                submission.reservationNumber(), QUEUED, null, Instant.now(), null);
+        statuses.put(status.submissionId(), status);
+        if (!queue.offer(new Queued(status.submissionId(), submission))) {
+            statuses.remove(status.submissionId());
+            return Optional.empty();
+        }
+        return Optional.of(status);
+    }
+
+    public Optional<PaymentSubmissionDto> status(String submissionId) {
+        return Optional.ofNullable(statuses.get(submissionId));
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "payment-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) executor.execute(this::work);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        accepting = false;
+        ExecutorService running = executor;
+        if (running == null) return;
+        running.shutdownNow();
+        running.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void work() {
+        List<Queued> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Queued first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                System.out.println("Payment batch of " + batch.size() + " failed: " + e.getMessage());
+                batch.forEach(q -> finish(q, FAILED, "Processing failed, please resubmit"));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void process(List<Queued> batch) {
+        Map<String, String> rejections = new HashMap<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<String, Reservation> reservations = new HashMap<>();
+            reservationRepository.findAllForUpdateByReservationNumberIn(
+                            batch.stream().map(q -> q.submission().reservationNumber()).distinct().toList())
+                    .forEach(r -> reservations.put(r.getReservationNumber(), r));
+            for (Queued q : batch) {
+                Submission s = q.submission();
+                Reservation reservation = reservations.get(s.reservationNumber());
+                if (reservation == null) {
+                    rejections.put(q.submissionId(), "Reservation not found");
+                    continue;
+                }
+                try {
+                    Payment payment = new Payment(s.amount(),
+                            s.paymentDate() != null ? s.paymentDate() : LocalDate.now(),
+                            s.method(), s.transactionReference());
+                    // A second payment for the same reservation in this batch fails here: it is CONFIRMED by now
+                    reservation.recordPayment(payment);
+                    eventPublisher.publishEvent(new ReservationStatusChangedEvent(
+                            reservation.getTrip().getTripId(), ReservationStatus.PENDING, ReservationStatus.CONFIRMED,
+                            1, reservation.getNumberOfPeople()));
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    rejections.put(q.submissionId(), e.getMessage());
+                }
+            }
+        });
+        // Statuses change only after the commit, so a poll never reports a payment that was rolled back
+        for (Queued q : batch) {
+            String rejection = rejections.get(q.submissionId());
+            if (rejection == null) finish(q, APPLIED, null);
+            else finish(q, REJECTED, rejection);
+        }
+    }
+
+    private void finish(Queued q, String state, String message) {
+        PaymentSubmissionDto queued = statuses.get(q.submissionId());
+        if (queued == null) return;
+        statuses.put(q.submissionId(), new PaymentSubmissionDto(queued.submissionId(), queued.reservationNumber(),
+                state, message, queued.submittedAt(), Instant.now()));
+        finishedOrder.add(q.submissionId());
+        // Keep the newest finished statuses; queued ones are never dropped
+        while (statuses.size() > statusRetention) {
+            String oldest = finishedOrder.poll();
+            if (oldest == null) break;
+            statuses.remove(oldest);
+        }
+    }
+
+    private record Queued(String submissionId, Submission submission) {}
+}
@@ -0,0 +1,102 @@
+package travelagency.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import travelagency.dto.ReservationDto;
+import travelagency.mapper.ReservationMapper;
+import travelagency.model.Reservation;
+import travelagency.repository.ReservationRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Full reservation export for back-office and reporting jobs, written as rows arrive from the database.
+ *
+ * One read-only transaction scrolls the reservations in id order (ReservationRepository.streamForExport);
+ * each row is mapped through ReservationMapper and written out as an NDJSON line or a CSV record. Every
+ * reservations.export.chunk-size rows the persistence context is cleared and the output flushed, so memory
+ * stays flat however many reservations there are and the client receives data from the first chunk on.
+ * An interrupted export can be resumed past the last reservationId received.
+ */
+@Service
+public class ReservationExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String CSV_HEADER = "reservationNumber,reservationId,customerId,customerName,"
+            + "tripId,tripName,numberOfPeople,status,bookingDate,totalPrice";
+
+    private final ReservationRepository reservationRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int chunkSize;
+
+    public ReservationExportService(ReservationRepository reservationRepository,
+                                    EntityManager entityManager,
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${reservations.export.chunk-size:1000}") int chunkSize) {
+        this.reservationRepository = reservationRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.chunkSize = chunkSize;
+    }
+
+    /** Writes every reservation with an id above after to out and returns how many were written. */
+    public long export(Format format, long after, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        Long written = readOnlyTransaction.execute(status -> {
+            long rows = 0;
+            try (Stream<Reservation> reservations = reservationRepository.streamForExport(after)) {
+                if (format == Format.CSV) writer.write(CSV_HEADER + "\n");
+                Iterator<Reservation> iterator = reservations.iterator();
+                while (iterator.hasNext()) {
+                    ReservationDto dto = ReservationMapper.toDto(iterator.next());
+                    writer.write(format == Format.CSV ? csvRecord(dto) : objectMapper.writeValueAsString(dto));
+                    writer.write('\n');
+                    if (++rows % chunkSize == 0) {
+                        entityManager.clear();
+                        writer.flush();
+                    }
+                }
+                writer.flush();
+            } catch (IOException e) {
+                // Usually the client went away; the read-only transaction and the cursor are closed either way
+                throw new UncheckedIOException(e);
+            }
+            return rows;
+        });
+        return written != null ? written : 0;
+    }
+
+    private static String csvRecord(ReservationDto r) {
+        return String.join(",", csv(r.id()), csv(r.reservationId()), csv(r.customerId()), csv(r.customerName()),
+                csv(r.tripId()), csv(r.tripName()), csv(r.numberOfPeople()), csv(r.status()), csv(r.bookingDate()),
+                csv(r.totalPrice()));
+    }
+
+    // RFC 4180: fields holding a separator, quote or line break are quoted, with quotes doubled
+    private static String csv(Object value) {
+        if (value == null) return "";
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
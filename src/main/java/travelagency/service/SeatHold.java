@@ -0,0 +1,10 @@
+package travelagency.service;
+
+import java.time.Instant;
+
+public record SeatHold(
+        String holdId,
+        long tripId,
+        int seats,
+        Instant expiresAt
+) {}
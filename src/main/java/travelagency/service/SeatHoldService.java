@@ -0,0 +1,179 @@
+package travelagency.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import travelagency.analytics.ReservationStatusChangedEvent;
+import travelagency.catalog.TripSeatsChangedEvent;
+import travelagency.model.Customer;
+import travelagency.model.Reservation;
+import travelagency.model.Trip;
+import travelagency.repository.CustomerRepository;
+import travelagency.repository.ReservationRepository;
+import travelagency.repository.TripRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Temporary seat holds for checkout, kept without a Reservation row.
+ *
+ * A hold takes seats with a conditional UPDATE of trips.held_seats, the same single-statement check
+ * bookings use, so holds and bookings together can never exceed capacity. The hold itself lives only
+ * in this ledger; expiry runs on a hashed timing wheel and gives the seats of all holds that fell due
+ * in one tick back with one UPDATE per trip. Whoever removes a hold from the ledger first (convert,
+ * release or expiry) owns it, so each hold's seats move exactly once.
+ *
+ * The ledger is per process: held_seats is zeroed on startup, which assumes a single application node.
+ */
+@Service
+public class SeatHoldService {
+
+    private static final int WHEEL_SLOTS = 512;
+
+    private final CustomerRepository customerRepository;
+    private final TripRepository tripRepository;
+    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration ttl;
+
+    private final Map<String, Entry> holds = new ConcurrentHashMap<>();
+    private final TimingWheel<Entry> expiryWheel;
+
+    public SeatHoldService(CustomerRepository customerRepository,
+                           TripRepository tripRepository,
+                           ReservationRepository reservationRepository,
+                           TransactionTemplate transactionTemplate,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${seat-holds.ttl:PT10M}") Duration ttl,
+                           @Value("${seat-holds.tick:PT1S}") Duration tick) {
+        this.customerRepository = customerRepository;
+        this.tripRepository = tripRepository;
+        this.reservationRepository = reservationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.ttl = ttl;
+        this.expiryWheel = new TimingWheel<>(tick, WHEEL_SLOTS, System.nanoTime());
+
+        // Holds of a previous run died with its ledger
+        Integer cleared = transactionTemplate.execute(status -> tripRepository.clearHeldSeats());
+        if (cleared != null && cleared > 0) {
+            System.out.println("Released seat holds left over on " + cleared + " trip(s)");
+        }
+    }
+
+    /**
+     * Holds seats on a trip for the configured TTL.
+     *
+     * @throws IllegalArgumentException if the trip does not exist or seats < 1
+     * @throws IllegalStateException if the trip has too few seats left
+     */
+    public SeatHold hold(long tripId, int seats) {
+        if (seats < 1) {
+            throw new IllegalArgumentException("Number of seats must be at least 1");
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (tripRepository.holdSeats(tripId, seats) == 0) {
+                if (!tripRepository.existsById(tripId)) throw new IllegalArgumentException("Trip not found");
+                throw new IllegalStateException("Not enough spots available");
+            }
+            eventPublisher.publishEvent(new TripSeatsChangedEvent(tripId, seats));
+        });
+        long deadline = System.nanoTime() + ttl.toNanos();
+        Entry entry = new Entry(new SeatHold(UUID.randomUUID().toString(), tripId, seats, Instant.now().plus(ttl)));
+        holds.put(entry.hold.holdId(), entry);
+        entry.timeout = expiryWheel.schedule(entry, deadline);
+        return entry.hold;
+    }
+
+    /**
+     * Turns a hold into a PENDING reservation for the customer.
+     *
+     * @throws IllegalArgumentException if the customer does not exist
+     * @throws IllegalStateException if the hold does not exist, has expired or was already used
+     */
+    public Reservation convert(String holdId, long customerId) {
+        if (!customerRepository.existsById(customerId)) {
+            throw new IllegalArgumentException("Customer not found");
+        }
+        Entry entry = claim(holdId);
+        try {
+            return transactionTemplate.execute(status -> {
+                Customer customer = customerRepository.findById(customerId)
+                        .orElseThrow(() -> new IllegalArgumentException("Customer not found"));
+                Trip trip = tripRepository.findById(entry.hold.tripId())
+                        .orElseThrow(() -> new IllegalStateException("Trip no longer exists"));
+                tripRepository.convertHeldSeats(trip.getTripId(), entry.hold.seats());
+                // Availability is unchanged, but both counters moved
+                eventPublisher.publishEvent(new TripSeatsChangedEvent(trip.getTripId(), 0));
+                eventPublisher.publishEvent(ReservationStatusChangedEvent.booked(trip.getTripId(), entry.hold.seats()));
+                return reservationRepository.save(new Reservation(customer, trip, entry.hold.seats()));
+            });
+        } catch (RuntimeException e) {
+            // The hold is used up either way; its seats must not stay held
+            releaseSeats(Map.of(entry.hold.tripId(), entry.hold.seats()));
+            throw e;
+        }
+    }
+
+    /**
+     * Gives a hold's seats back before it expires.
+     *
+     * @throws IllegalStateException if the hold does not exist, has expired or was already used
+     */
+    public void release(String holdId) {
+        Entry entry = claim(holdId);
+        releaseSeats(Map.of(entry.hold.tripId(), entry.hold.seats()));
+    }
+
+    public int activeHolds() {
+        return holds.size();
+    }
+
+    @Scheduled(fixedRateString = "${seat-holds.tick:PT1S}")
+    public void expireHolds() {
+        List<Entry> due = expiryWheel.advance(System.nanoTime());
+        Map<Long, Integer> seatsByTrip = new TreeMap<>();
+        for (Entry entry : due) {
+            if (holds.remove(entry.hold.holdId(), entry)) {
+                seatsByTrip.merge(entry.hold.tripId(), entry.hold.seats(), Integer::sum);
+            }
+        }
+        if (!seatsByTrip.isEmpty()) releaseSeats(seatsByTrip);
+    }
+
+    private Entry claim(String holdId) {
+        Entry entry = holds.remove(holdId);
+        if (entry == null) {
+            throw new IllegalStateException("Hold not found or expired");
+        }
+        // Null only if claimed before hold() scheduled it; the late timeout then finds nothing to expire
+        TimingWheel.Timeout<Entry> timeout = entry.timeout;
+        if (timeout != null) timeout.cancel();
+        return entry;
+    }
+
+    private void releaseSeats(Map<Long, Integer> seatsByTrip) {
+        transactionTemplate.executeWithoutResult(status -> seatsByTrip.forEach((tripId, seats) -> {
+            tripRepository.releaseHeldSeats(tripId, seats);
+            eventPublisher.publishEvent(new TripSeatsChangedEvent(tripId, -seats));
+        }));
+    }
+
+    private static final class Entry {
+        final SeatHold hold;
+        volatile TimingWheel.Timeout<Entry> timeout;
+
+        Entry(SeatHold hold) {
+            this.hold = hold;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package travelagency.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hashed timing wheel: a ring of slots, each holding the timeouts that fall due when the wheel's
+ * cursor reaches it. Scheduling and cancelling are O(1); a deadline further away than one turn keeps
+ * a count of remaining turns. Precision is one tick.
+ *
+ * schedule() and Timeout.cancel() may be called from any thread. Timeouts are handed over through a
+ * queue and placed into slots by advance(), which must be driven by a single thread at a time.
+ */
+final class TimingWheel<T> {
+
+    static final class Timeout<T> {
+        private final T payload;
+        private final long deadline;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(T payload, long deadline) {
+            this.payload = payload;
+            this.deadline = deadline;
+        }
+
+        T payload() {
+            return payload;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+    }
+
+    private final long tickNanos;
+    private final int mask;
+    private final List<Timeout<T>>[] slots;
+    private final Queue<Timeout<T>> scheduled = new ConcurrentLinkedQueue<>();
+    private final long startNanos;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(Duration tickDuration, int slotCount, long startNanos) {
+        if (Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("slotCount must be a power of two");
+        }
+        this.tickNanos = tickDuration.toNanos();
+        this.mask = slotCount - 1;
+        this.slots = new List[slotCount];
+        for (int i = 0; i < slotCount; i++) slots[i] = new ArrayList<>();
+        this.startNanos = startNanos;
+    }
+
+    Timeout<T> schedule(T payload, long deadlineNanos) {
+        Timeout<T> timeout = new Timeout<>(payload, deadlineNanos);
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /** Moves the cursor up to nowNanos and returns the payloads of every timeout that fell due. */
+    List<T> advance(long nowNanos) {
+        List<T> expired = new ArrayList<>();
+        // The slot for tick t covers deadlines in [start + t*tickNanos, start + (t+1)*tickNanos)
+        while (startNanos + (tick + 1) * tickNanos <= nowNanos) {
+            transferScheduled();
+            List<Timeout<T>> slot = slots[(int) (tick & mask)];
+            int kept = 0;
+            for (Timeout<T> timeout : slot) {
+                if (timeout.cancelled) continue;
+                if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                    slot.set(kept++, timeout);
+                } else {
+                    expired.add(timeout.payload);
+                }
+            }
+            slot.subList(kept, slot.size()).clear();
+            tick++;
+        }
+        return expired;
+    }
+
+    private void transferScheduled() {
+        Timeout<T> timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.cancelled) continue;
+            // Deadlines already behind the cursor go into the slot processed next
+            long dueTick = Math.max(tick, (timeout.deadline - startNanos) / tickNanos);
+            timeout.remainingRounds = (dueTick - tick) / slots.length;
+            slots[(int) (dueTick & mask)].add(timeout);
+        }
+    }
+}
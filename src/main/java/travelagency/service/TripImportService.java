@@ -0,0 +1,378 @@
+package travelagency.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import travelagency.catalog.TripCatalogChangedEvent;
+import travelagency.dto.TripImportReportDto;
+import travelagency.dto.TripImportRow;
+import travelagency.model.enums.DifficultyLevel;
+import travelagency.persistence.IdSequenceMigration;
+import travelagency.persistence.TripSingleTableMigration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk import of the trip catalog from CSV or JSON (TripImportRow per trip).
+ *
+ * The input is parsed row by row as it arrives. Each row is validated on its own: required fields,
+ * dates and amounts, subtype fields, the optional flight, a trip code not yet taken, and a destination
+ * resolved by name from an in-memory lookup of the existing ones; an unknown destination is created when
+ * the row gives its country. Valid rows are written trips.import.chunk-size per transaction as plain
+ * JDBC batches, the way SyntheticDataGenerator loads data: ids come from blocks reserved on the
+ * sequences (IdBlock, growing up to ID_BLOCK_CHUNKS chunks so that restarting a sequence is not a DDL
+ * statement per chunk; ids left in the last block are skipped), and rows go to the trips table of the current layout (TripSingleTableMigration) along with
+ * historical sites, flights and new destinations. A chunk that fails as a whole (a trip code inserted
+ * concurrently) rejects its rows and the import carries on.
+ *
+ * The report counts rows read, imported and rejected and lists the first trips.import.max-errors row
+ * errors. Progress is logged per chunk. Imports run one at a time; the catalog caches, which the JDBC
+ * writes bypass, are refreshed once the import is done.
+ */
+@Service
+public class TripImportService {
+
+    public enum Format { CSV, JSON }
+
+    private static final List<String> TYPES = List.of("Adventure", "Cultural", "Vacation");
+    // Largest id block reserved at once, in chunks
+    private static final int ID_BLOCK_CHUNKS = 8;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IdSequenceMigration idSequences;
+    private final TripSingleTableMigration tripLayout;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public TripImportService(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             IdSequenceMigration idSequences,
+                             TripSingleTableMigration tripLayout,
+                             ApplicationEventPublisher eventPublisher,
+                             ObjectMapper objectMapper,
+                             @Value("${trips.import.chunk-size:5000}") int chunkSize,
+                             @Value("${trips.import.batch-size:1000}") int batchSize,
+                             @Value("${trips.import.max-errors:1000}") int maxErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.idSequences = idSequences;
+        this.tripLayout = tripLayout;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public synchronized TripImportReportDto importTrips(Format format, InputStream in) {
+        Run run = new Run();
+        long started = System.nanoTime();
+        long elapsed;
+        String error = null;
+        try (TripImportSource source = format == Format.CSV
+                ? TripImportSource.csv(in) : TripImportSource.json(in, objectMapper)) {
+            loadLookups(run);
+            for (TripImportSource.Row row = source.next(); row != null; row = source.next()) {
+                run.rowsRead++;
+                String problem = row.error() != null ? row.error() : validate(row.trip(), run);
+                if (problem != null) {
+                    run.reject(row.number(), row.trip() != null ? row.trip().tripCode() : null, problem);
+                    continue;
+                }
+                run.chunk.add(new Pending(row.number(), row.trip()));
+                if (run.chunk.size() == chunkSize) writeChunk(run, started);
+            }
+            writeChunk(run, started);
+        } catch (IOException | IllegalArgumentException e) {
+            // The input cannot be read any further; whatever was committed before stays
+            error = "Import stopped after row " + run.rowsRead + ": " + e.getMessage();
+        } finally {
+            // The catalog refresh that follows is not part of the import's own time
+            elapsed = System.nanoTime() - started;
+            if (run.imported > 0) eventPublisher.publishEvent(TripCatalogChangedEvent.all());
+        }
+
+        long millis = elapsed / 1_000_000;
+        return new TripImportReportDto(run.rowsRead, run.imported, run.rejected, run.destinationsCreated, millis,
+                millis > 0 ? run.imported * 1000 / millis : run.imported, error, run.errors,
+                run.rejected > run.errors.size());
+    }
+
+    private void loadLookups(Run run) {
+        // Ordered so that of two destinations with the same name the older one wins
+        jdbcTemplate.query("select destination_id, name from destinations order by destination_id desc",
+                rs -> { run.destinationIds.put(key(rs.getString(2)), rs.getLong(1)); });
+        jdbcTemplate.query("select trip_code from trips", rs -> { run.tripCodes.add(rs.getString(1)); });
+    }
+
+    // ===== Validation: the first problem of a row, or null when it can be imported =====
+    private String validate(TripImportRow row, Run run) {
+        String type = type(row.type());
+        if (type == null) return "type must be one of " + String.join(", ", TYPES);
+        if (blank(row.tripCode())) return "tripCode is required";
+        if (blank(row.name())) return "name is required";
+        if (blank(row.destination())) return "destination is required";
+        if (row.departureDate() == null || row.returnDate() == null) {
+            return "departureDate and returnDate are required";
+        }
+        if (row.returnDate().isBefore(row.departureDate())) return "returnDate is before departureDate";
+        if (row.basePrice() == null || row.basePrice().signum() <= 0) return "basePrice must be positive";
+        if (row.maxParticipants() == null || row.maxParticipants() < 1) return "maxParticipants must be at least 1";
+        if (type.equals("Adventure") && difficulty(row.difficultyLevel()) == null) {
+            return "difficultyLevel must be one of EASY, MEDIUM, HARD for an Adventure trip";
+        }
+        if (type.equals("Vacation") && blank(row.resortName())) return "resortName is required for a Vacation trip";
+        if (hasFlight(row)) {
+            if (blank(row.flightNumber()) || blank(row.departureAirport()) || blank(row.arrivalAirport())
+                    || row.departureTime() == null || row.arrivalTime() == null) {
+                return "a flight needs flightNumber, departureAirport, arrivalAirport, departureTime and arrivalTime";
+            }
+            if (!row.arrivalTime().isAfter(row.departureTime())) return "flight arrivalTime is not after departureTime";
+        }
+        String destination = key(row.destination());
+        if (!run.destinationIds.containsKey(destination) && !run.newDestinations.containsKey(destination)) {
+            if (blank(row.country())) {
+                return "unknown destination " + row.destination().trim() + " (give its country to create it)";
+            }
+            run.newDestinations.put(destination, new NewDestination(row.destination().trim(), row.country().trim(),
+                    blank(row.climate()) ? null : row.climate().trim()));
+        }
+        if (!run.tripCodes.add(row.tripCode().trim())) return "tripCode " + row.tripCode().trim() + " is already taken";
+        return null;
+    }
+
+    // ===== Writing: one transaction of JDBC batches per chunk =====
+    private void writeChunk(Run run, long started) {
+        if (run.chunk.isEmpty()) return;
+        // Ids are reserved outside the chunk transaction, as restarting a sequence ends it on H2
+        Map<String, Long> created = new LinkedHashMap<>();
+        long flights = 0;
+        for (Pending pending : run.chunk) {
+            String key = key(pending.row().destination());
+            if (!run.destinationIds.containsKey(key)) created.putIfAbsent(key, null);
+            if (hasFlight(pending.row())) flights++;
+        }
+        if (!created.isEmpty()) {
+            long destinationId = run.destinationIdBlock.take(created.size());
+            for (Map.Entry<String, Long> entry : created.entrySet()) entry.setValue(destinationId++);
+        }
+        long firstTripId = run.tripIdBlock.take(run.chunk.size());
+        long firstFlightId = flights > 0 ? run.flightIdBlock.take(flights) : 0;
+
+        Rows rows = new Rows();
+        created.forEach((key, id) -> {
+            NewDestination planned = run.newDestinations.get(key);
+            rows.destinations.add(new Object[]{id, planned.name(), planned.country(), "", planned.climate()});
+        });
+        long tripId = firstTripId;
+        long flightId = firstFlightId;
+        for (Pending pending : run.chunk) {
+            TripImportRow row = pending.row();
+            String key = key(row.destination());
+            long destinationId = created.containsKey(key) ? created.get(key) : run.destinationIds.get(key);
+            addTrip(rows, tripId, row, destinationId);
+            if (hasFlight(row)) {
+                rows.flights.add(new Object[]{flightId++, row.flightNumber(), row.airline(), row.departureAirport(),
+                        row.arrivalAirport(), Timestamp.valueOf(row.departureTime()),
+                        Timestamp.valueOf(row.arrivalTime()), tripId});
+            }
+            tripId++;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                batch("insert into destinations (destination_id, name, country, description, climate) "
+                        + "values (?, ?, ?, ?, ?)", rows.destinations);
+                if (tripLayout.singleTable()) {
+                    batch("insert into trips (trip_id, trip_type, trip_code, name, description, departure_date, "
+                            + "return_date, base_price, max_participants, destination_id, difficulty_level, "
+                            + "equipment_included, guided_tours, resort_name, all_inclusive) "
+                            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows.trips);
+                } else {
+                    batch("insert into trips (trip_id, trip_type, trip_code, name, description, departure_date, "
+                            + "return_date, base_price, max_participants, destination_id) "
+                            + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows.trips);
+                    batch("insert into adventure_trips (trip_id, difficulty_level, equipment_included) "
+                            + "values (?, ?, ?)", rows.adventure);
+                    batch("insert into cultural_trips (trip_id, guided_tours) values (?, ?)", rows.cultural);
+                    batch("insert into vacation_trips (trip_id, resort_name, all_inclusive) values (?, ?, ?)",
+                            rows.vacation);
+                }
+                batch("insert into cultural_trip_sites (trip_id, site_order, historical_sites) values (?, ?, ?)",
+                        rows.sites);
+                batch("insert into flights (flight_id, flight_number, airline, departure_airport, arrival_airport, "
+                        + "departure_time, arrival_time, trip_id) values (?, ?, ?, ?, ?, ?, ?, ?)", rows.flights);
+            });
+            run.imported += run.chunk.size();
+            run.destinationIds.putAll(created);
+            created.keySet().forEach(run.newDestinations::remove);
+            run.destinationsCreated += created.size();
+        } catch (RuntimeException e) {
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (Pending pending : run.chunk) {
+                run.reject(pending.number(), pending.row().tripCode(), "not imported, its chunk failed: " + cause);
+            }
+        }
+        run.chunk.clear();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("Trip import: %d rows read, %d imported, %d rejected (%.0f trips/s)%n",
+                run.rowsRead, run.imported, run.rejected, run.imported / seconds);
+    }
+
+    // One trips row, plus a subtype row under trips-joined and the sites of a cultural trip
+    private void addTrip(Rows rows, long tripId, TripImportRow row, long destinationId) {
+        String type = type(row.type());
+        // difficulty_level, equipment_included, guided_tours, resort_name, all_inclusive
+        Object[] subtypeColumns = new Object[5];
+        switch (type) {
+            case "Adventure" -> {
+                subtypeColumns[0] = difficulty(row.difficultyLevel()).name();
+                subtypeColumns[1] = Boolean.TRUE.equals(row.equipmentIncluded());
+                rows.adventure.add(new Object[]{tripId, subtypeColumns[0], subtypeColumns[1]});
+            }
+            case "Cultural" -> {
+                subtypeColumns[2] = Boolean.TRUE.equals(row.guidedTours());
+                rows.cultural.add(new Object[]{tripId, subtypeColumns[2]});
+                List<String> sites = row.historicalSites() != null ? row.historicalSites() : List.of();
+                for (int s = 0; s < sites.size(); s++) rows.sites.add(new Object[]{tripId, s, sites.get(s)});
+            }
+            default -> {
+                subtypeColumns[3] = row.resortName();
+                subtypeColumns[4] = Boolean.TRUE.equals(row.allInclusive());
+                rows.vacation.add(new Object[]{tripId, subtypeColumns[3], subtypeColumns[4]});
+            }
+        }
+        Object[] tripRow = {tripId, type, row.tripCode().trim(), row.name(),
+                row.description() != null ? row.description() : "", Date.valueOf(row.departureDate()),
+                Date.valueOf(row.returnDate()), row.basePrice(), row.maxParticipants(), destinationId};
+        if (!tripLayout.singleTable()) {
+            rows.trips.add(tripRow);
+            return;
+        }
+        Object[] singleTableRow = Arrays.copyOf(tripRow, tripRow.length + subtypeColumns.length);
+        System.arraycopy(subtypeColumns, 0, singleTableRow, tripRow.length, subtypeColumns.length);
+        rows.trips.add(singleTableRow);
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        ParameterizedPreparedStatementSetter<Object[]> setter = (ps, row) -> {
+            for (int i = 0; i < row.length; i++) ps.setObject(i + 1, row[i]);
+        };
+        jdbcTemplate.batchUpdate(sql, rows, batchSize, setter);
+    }
+
+    private static String type(String type) {
+        if (type == null) return null;
+        String trimmed = type.trim();
+        for (String t : TYPES) {
+            if (t.equalsIgnoreCase(trimmed)) return t;
+        }
+        return null;
+    }
+
+    private static DifficultyLevel difficulty(String level) {
+        if (level == null) return null;
+        try {
+            return DifficultyLevel.valueOf(level.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean hasFlight(TripImportRow row) {
+        return row.flightNumber() != null || row.airline() != null || row.departureAirport() != null
+                || row.arrivalAirport() != null || row.departureTime() != null || row.arrivalTime() != null;
+    }
+
+    private static boolean blank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String key(String destinationName) {
+        return destinationName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Pending(long number, TripImportRow row) {}
+
+    private record NewDestination(String name, String country, String climate) {}
+
+    // Statement parameters of one chunk, per table
+    private static final class Rows {
+        final List<Object[]> destinations = new ArrayList<>();
+        final List<Object[]> trips = new ArrayList<>();
+        final List<Object[]> adventure = new ArrayList<>();
+        final List<Object[]> cultural = new ArrayList<>();
+        final List<Object[]> vacation = new ArrayList<>();
+        final List<Object[]> sites = new ArrayList<>();
+        final List<Object[]> flights = new ArrayList<>();
+    }
+
+    /**
+     * Ids reserved on one sequence for the current import, handed out in order. A reservation restarts
+     * the sequence, a DDL statement, so each new block is twice the last, up to ID_BLOCK_CHUNKS chunks.
+     */
+    private final class IdBlock {
+        final String sequence;
+        long next;
+        long end;
+        long size;
+
+        IdBlock(String sequence) {
+            this.sequence = sequence;
+        }
+
+        long take(long count) {
+            if (end - next < count) {
+                size = Math.max(count, Math.min(size * 2, (long) chunkSize * ID_BLOCK_CHUNKS));
+                next = idSequences.reserveIds(sequence, size);
+                end = next + size;
+            }
+            long first = next;
+            next += count;
+            return first;
+        }
+    }
+
+    // State of one import
+    private final class Run {
+        final IdBlock destinationIdBlock = new IdBlock("destinations_seq");
+        final IdBlock tripIdBlock = new IdBlock("trips_seq");
+        final IdBlock flightIdBlock = new IdBlock("flights_seq");
+        final Map<String, Long> destinationIds = new HashMap<>();
+        final Map<String, NewDestination> newDestinations = new HashMap<>();
+        final Set<String> tripCodes = new HashSet<>();
+        final List<Pending> chunk = new ArrayList<>();
+        final List<TripImportReportDto.RowError> errors = new ArrayList<>();
+        long rowsRead;
+        long imported;
+        long rejected;
+        int destinationsCreated;
+
+        void reject(long row, String tripCode, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) errors.add(new TripImportReportDto.RowError(row, tripCode, message));
+        }
+    }
+}
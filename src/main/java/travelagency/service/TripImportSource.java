@@ -0,0 +1,218 @@
+package travelagency.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import travelagency.dto.TripImportRow;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rows of a trip import, parsed one at a time as the input arrives. CSV has a header line naming
+ * TripImportRow fields in any order (historicalSites separated by '|'); JSON is an array of objects or
+ * a sequence of them (NDJSON). A row that cannot be parsed comes back with an error instead of a trip;
+ * input that cannot be read any further (bad header, broken JSON) throws.
+ */
+abstract class TripImportSource implements Closeable {
+
+    record Row(long number, TripImportRow trip, String error) {}
+
+    /** The next row, or null at the end of the input. */
+    abstract Row next() throws IOException;
+
+    static TripImportSource csv(InputStream in) throws IOException {
+        return new Csv(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    static TripImportSource json(InputStream in, ObjectMapper objectMapper) throws IOException {
+        return new Json(objectMapper.readerFor(TripImportRow.class)
+                .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValues(in));
+    }
+
+    private static final class Json extends TripImportSource {
+        private final MappingIterator<TripImportRow> rows;
+        private long number;
+
+        Json(MappingIterator<TripImportRow> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        Row next() throws IOException {
+            if (!rows.hasNextValue()) return null;
+            number++;
+            try {
+                return new Row(number, rows.nextValue(), null);
+            } catch (JsonMappingException e) {
+                // The iterator skips to the end of the broken object, so the next row parses normally
+                return new Row(number, null, e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            rows.close();
+        }
+    }
+
+    private static final class Csv extends TripImportSource {
+        private static final RecordComponent[] FIELDS = TripImportRow.class.getRecordComponents();
+        private static final Constructor<TripImportRow> CONSTRUCTOR = canonicalConstructor();
+        private static final Set<String> REQUIRED = Set.of("type", "tripCode", "name", "destination",
+                "departureDate", "returnDate", "basePrice", "maxParticipants");
+
+        private final Reader reader;
+        // Read ahead here rather than through BufferedReader, whose read() takes a lock per character
+        private final char[] buffer = new char[8192];
+        private int position;
+        private int limit;
+        // For each record component, its column in the file, or -1 when the file has no such column
+        private final int[] columns = new int[FIELDS.length];
+        private long number;
+
+        Csv(Reader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header == null) throw new IllegalArgumentException("The CSV input is empty");
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String column = (i == 0 ? header.get(i).replace("\uFEFF", "") : header.get(i)).trim();
+                if (Arrays.stream(FIELDS).noneMatch(f -> f.getName().equals(column))) {
+                    throw new IllegalArgumentException("Unknown CSV column " + column);
+                }
+                positions.put(column, i);
+            }
+            for (String required : REQUIRED) {
+                if (!positions.containsKey(required)) {
+                    throw new IllegalArgumentException("The CSV header lacks the " + required + " column");
+                }
+            }
+            for (int f = 0; f < FIELDS.length; f++) columns[f] = positions.getOrDefault(FIELDS[f].getName(), -1);
+        }
+
+        @Override
+        Row next() throws IOException {
+            List<String> record;
+            do {
+                record = readRecord();
+                if (record == null) return null;
+            } while (record.size() == 1 && record.get(0).isBlank());
+            number++;
+            Object[] values = new Object[FIELDS.length];
+            for (int f = 0; f < FIELDS.length; f++) {
+                String text = columns[f] >= 0 && columns[f] < record.size() ? record.get(columns[f]).trim() : "";
+                if (text.isEmpty()) continue;
+                try {
+                    values[f] = convert(FIELDS[f].getType(), text);
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    return new Row(number, null, FIELDS[f].getName() + ": cannot read '" + text + "'");
+                }
+            }
+            try {
+                return new Row(number, CONSTRUCTOR.newInstance(values), null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static Constructor<TripImportRow> canonicalConstructor() {
+            try {
+                return TripImportRow.class.getDeclaredConstructor(
+                        Arrays.stream(FIELDS).map(RecordComponent::getType).toArray(Class<?>[]::new));
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static Object convert(Class<?> type, String text) {
+            if (type == String.class) return text;
+            if (type == LocalDate.class) return LocalDate.parse(text);
+            if (type == LocalDateTime.class) return LocalDateTime.parse(text);
+            if (type == BigDecimal.class) return new BigDecimal(text);
+            if (type == Integer.class) return Integer.valueOf(text);
+            if (type == Boolean.class) {
+                if (!text.equalsIgnoreCase("true") && !text.equalsIgnoreCase("false")) {
+                    throw new IllegalArgumentException(text);
+                }
+                return Boolean.valueOf(text);
+            }
+            if (type == List.class) {
+                return Arrays.stream(text.split("\\|")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+            }
+            throw new IllegalStateException("No CSV conversion for " + type);
+        }
+
+        // One RFC 4180 record: quoted fields may hold separators, doubled quotes and line breaks
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int c = read();
+            if (c == -1) return null;
+            for (; c != -1; c = read()) {
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                        continue;
+                    }
+                    if (peek() == '"') {
+                        position++;
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private int read() throws IOException {
+            int c = peek();
+            if (c != -1) position++;
+            return c;
+        }
+
+        private int peek() throws IOException {
+            if (position == limit) {
+                limit = Math.max(reader.read(buffer, 0, buffer.length), 0);
+                position = 0;
+                if (limit == 0) return -1;
+            }
+            return buffer[position];
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}